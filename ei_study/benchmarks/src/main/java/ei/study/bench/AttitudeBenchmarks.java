@@ -0,0 +1,50 @@
+package ei.study.bench;
+
+import com.satellite.AttitudeEngine;
+import com.satellite.Direction;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AttitudeBenchmarks {
+
+    @State(Scope.Thread)
+    public static class FleetState {
+        @Param({"1000", "100000"})
+        public int fleetSize;
+
+        AttitudeEngine engine;
+
+        // Every slot is given a far-away target so the whole fleet is
+        // mid-slew for the duration of the measurement.
+        @Setup
+        public void setUp() {
+            engine = new AttitudeEngine(fleetSize, 1e-3);
+            Direction[] directions = Direction.values();
+            for (int i = 0; i < fleetSize; i++) {
+                int slot = engine.add(directions[i % directions.length]);
+                engine.slewTo(slot, directions[(i + 2) % directions.length]);
+            }
+        }
+    }
+
+    @Benchmark
+    public AttitudeEngine propagateTick(FleetState state) {
+        state.engine.step(0.1);
+        return state.engine;
+    }
+}
@@ -0,0 +1,129 @@
+package ei.study.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatternBenchmarks {
+
+    @State(Scope.Thread)
+    public static class ChatRoomState {
+        @Param({"10", "1000", "100000"})
+        public int observers;
+
+        Runnable notifier;
+
+        @Setup
+        public void setUp() {
+            BenchmarkSupport.muteConsole();
+            notifier = BenchmarkSupport.exercise1("ChatApplication", "chatRoom", observers,
+                    "Welcome to the chat!");
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class AsyncChatRoomState {
+        @Param({"10", "1000", "100000"})
+        public int observers;
+
+        Runnable notifier;
+
+        @Setup
+        public void setUp() {
+            BenchmarkSupport.muteConsole();
+            notifier = BenchmarkSupport.exercise1("ChatApplication", "asyncChatRoom", observers,
+                    "Welcome to the chat!");
+        }
+
+        @TearDown
+        public void tearDown() throws Exception {
+            ((AutoCloseable) notifier).close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class SubscriptionState {
+        @Param({"1000", "1000000"})
+        public int subscribers;
+
+        Runnable publisher;
+
+        @Setup
+        public void setUp() {
+            BenchmarkSupport.muteConsole();
+            publisher = BenchmarkSupport.exercise1("ChatApplication", "filteredChatRoom", subscribers,
+                    "@user1 and @user2, the #topic3 build is green");
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class CoffeeChainState {
+        @Param({"1", "10", "100"})
+        public int depth;
+
+        DoubleSupplier coffee;
+
+        @Setup
+        public void setUp() {
+            BenchmarkSupport.muteConsole();
+            coffee = BenchmarkSupport.exercise1("CoffeeShop", "coffeeChain", depth);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class CoffeeQuoteState {
+        @Param({"1", "10", "100"})
+        public int depth;
+
+        LongSupplier quote;
+
+        @Setup
+        public void setUp() {
+            BenchmarkSupport.muteConsole();
+            quote = BenchmarkSupport.exercise1("CoffeeShop", "coffeeQuote", depth);
+        }
+    }
+
+    @Benchmark
+    public void chatRoomNotifyObservers(ChatRoomState state) {
+        state.notifier.run();
+    }
+
+    // Measures the sender-side cost only; delivery happens on the room's pool.
+    @Benchmark
+    public void asyncChatRoomNotifyObservers(AsyncChatRoomState state) {
+        state.notifier.run();
+    }
+
+    @Benchmark
+    public void filteredChatRoomPublish(SubscriptionState state) {
+        state.publisher.run();
+    }
+
+    @Benchmark
+    public double coffeeDecoratorCost(CoffeeChainState state) {
+        return state.coffee.getAsDouble();
+    }
+
+    @Benchmark
+    public long coffeePricingEngineQuote(CoffeeQuoteState state) {
+        return state.quote.getAsLong();
+    }
+}
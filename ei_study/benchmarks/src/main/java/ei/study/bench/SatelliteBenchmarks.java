@@ -0,0 +1,120 @@
+package ei.study.bench;
+
+import com.satellite.ActivatePanelsCommand;
+import com.satellite.CollectDataCommand;
+import com.satellite.Command;
+import com.satellite.CommandInvoker;
+import com.satellite.DeactivatePanelsCommand;
+import com.satellite.Direction;
+import com.satellite.LoggerSingleton;
+import com.satellite.RotateCommand;
+import com.satellite.Satellite;
+import com.satellite.SatelliteStateException;
+import com.satellite.SatelliteStatus;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SatelliteBenchmarks {
+
+    @State(Scope.Thread)
+    public static class DirectionState {
+        @Param({"north", "West", "invalid"})
+        public String input;
+    }
+
+    @State(Scope.Thread)
+    public static class SatelliteState {
+        Satellite satellite;
+        Logger logger;
+        ByteBuffer status = ByteBuffer.allocateDirect(SatelliteStatus.SIZE);
+
+        @Setup
+        public void setUp() {
+            BenchmarkSupport.quietSatellite();
+            logger = LoggerSingleton.getInstance();
+            satellite = new Satellite();
+            satellite.activatePanels();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class InvokerState {
+        @Param({"rotate", "activatePanels", "deactivatePanels", "collectData"})
+        public String commandType;
+
+        CommandInvoker invoker;
+
+        @Setup
+        public void setUp(SatelliteState state) {
+            invoker = new CommandInvoker();
+            invoker.setCommand(command(state.satellite));
+        }
+
+        private Command command(Satellite satellite) {
+            switch (commandType) {
+                case "rotate":
+                    return new RotateCommand(satellite, Direction.EAST);
+                case "activatePanels":
+                    return new ActivatePanelsCommand(satellite);
+                case "deactivatePanels":
+                    return new DeactivatePanelsCommand(satellite);
+                case "collectData":
+                    return new CollectDataCommand(satellite);
+                default:
+                    throw new IllegalArgumentException("Unknown command type: " + commandType);
+            }
+        }
+    }
+
+    @Benchmark
+    public Object directionFromString(DirectionState state) {
+        try {
+            return Direction.fromString(state.input);
+        } catch (SatelliteStateException e) {
+            return e;
+        }
+    }
+
+    // deactivatePanels leaves the panels off, so collectData is only measured
+    // on its own parameter where the setup has switched them on.
+    @Benchmark
+    public CommandInvoker executeCommand(InvokerState state) throws SatelliteStateException {
+        state.invoker.executeCommand();
+        return state.invoker;
+    }
+
+    @Benchmark
+    public String satelliteToString(SatelliteState state) {
+        return state.satellite.toString();
+    }
+
+    @Benchmark
+    public ByteBuffer satelliteWriteStatus(SatelliteState state) {
+        state.status.clear();
+        state.satellite.writeStatus(state.status);
+        return state.status;
+    }
+
+    @Benchmark
+    public Logger loggerSingletonLog(SatelliteState state) {
+        state.logger.log(java.util.logging.Level.INFO, "Satellite rotated to {0}", Direction.EAST);
+        return state.logger;
+    }
+}
@@ -0,0 +1,108 @@
+package ei.study.bench;
+
+import com.satellite.Direction;
+import com.satellite.LoggerSingleton;
+import com.satellite.Satellite;
+import com.satellite.SatelliteStateException;
+import com.satellite.SatelliteStatus;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// One command writer against three status readers, once on the packed state
+// word and once with every access serialized on the satellite's monitor.
+// The writer alternates rotate and collectData so that every consistent
+// snapshot satisfies orientation == data/10 or data/10 + 1 (mod 4); readers
+// fail the run if they ever observe a torn combination.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SatelliteConcurrencyBenchmarks {
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    @State(Scope.Group)
+    public static class SharedSatellite {
+        Satellite satellite;
+        long step;
+
+        @Setup
+        public void setUp() {
+            BenchmarkSupport.quietSatellite();
+            // Logging would dominate the writer; this comparison is about the state itself.
+            LoggerSingleton.getInstance().setLevel(java.util.logging.Level.OFF);
+            satellite = new Satellite();
+            satellite.activatePanels();
+        }
+
+        void advance() throws SatelliteStateException {
+            if ((step++ & 1) == 0) {
+                satellite.rotate(DIRECTIONS[(satellite.getOrientation().ordinal() + 1) % DIRECTIONS.length]);
+            } else {
+                satellite.collectData();
+            }
+        }
+    }
+
+    @Benchmark
+    @Group("packed")
+    @GroupThreads(1)
+    public void packedWriter(SharedSatellite shared) throws SatelliteStateException {
+        shared.advance();
+    }
+
+    @Benchmark
+    @Group("packed")
+    @GroupThreads(3)
+    public SatelliteStatus packedReader(SharedSatellite shared) {
+        SatelliteStatus status = shared.satellite.getStatus();
+        check(status.getOrientation(), status.isSolarPanelsActive(), status.getDataCollected());
+        return status;
+    }
+
+    @Benchmark
+    @Group("synchronized")
+    @GroupThreads(1)
+    public void synchronizedWriter(SharedSatellite shared) throws SatelliteStateException {
+        synchronized (shared.satellite) {
+            shared.advance();
+        }
+    }
+
+    @Benchmark
+    @Group("synchronized")
+    @GroupThreads(3)
+    public long synchronizedReader(SharedSatellite shared) {
+        Satellite satellite = shared.satellite;
+        Direction orientation;
+        boolean panelsActive;
+        long dataCollected;
+        synchronized (satellite) {
+            orientation = satellite.getOrientation();
+            panelsActive = satellite.isSolarPanelsActive();
+            dataCollected = satellite.getDataCollected();
+        }
+        check(orientation, panelsActive, dataCollected);
+        return dataCollected;
+    }
+
+    private static void check(Direction orientation, boolean panelsActive, long dataCollected) {
+        long collections = dataCollected / 10;
+        int ordinal = orientation.ordinal();
+        if (!panelsActive || (ordinal != collections % 4 && ordinal != (collections + 1) % 4)) {
+            throw new IllegalStateException("Torn satellite state: " + orientation + ", panels "
+                    + panelsActive + ", data " + dataCollected);
+        }
+    }
+}
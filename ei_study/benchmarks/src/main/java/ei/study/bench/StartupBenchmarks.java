@@ -0,0 +1,111 @@
+package ei.study.bench;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Time-to-first-command: launches a fresh JVM running the satellite script mode,
+// sends one command followed by "status", and stops the clock when the status
+// line comes back. JVM shutdown happens in the untimed teardown.
+//
+// Run from ei_study after "mvn package -Pappcds" so that the exercise_2 jar and
+// its class-data-sharing archive exist; both paths can be overridden with
+// -Dsatellite.jar and -Dsatellite.cds.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 20)
+@Fork(1)
+@State(Scope.Thread)
+public class StartupBenchmarks {
+    private static final byte[] SCRIPT = "rotate east\nstatus\n".getBytes(StandardCharsets.US_ASCII);
+
+    @Param({"default", "fast", "fast-cds"})
+    public String launchMode;
+
+    private List<String> command;
+    private Path workingDirectory;
+    private Process process;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path jar = Paths.get(System.getProperty("satellite.jar", "exercise_2/target/exercise-2-1.0-SNAPSHOT.jar"));
+        Path archive = Paths.get(System.getProperty("satellite.cds", "exercise_2/target/satellite.jsa"));
+        if (!Files.exists(jar)) {
+            throw new IllegalStateException("Satellite jar not found: " + jar.toAbsolutePath());
+        }
+        workingDirectory = Files.createTempDirectory("satellite-startup");
+        command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        switch (launchMode) {
+            case "default":
+                break;
+            case "fast-cds":
+                if (!Files.exists(archive)) {
+                    throw new IllegalStateException("CDS archive not found, build with -Pappcds: "
+                            + archive.toAbsolutePath());
+                }
+                command.add("-XX:SharedArchiveFile=" + archive.toAbsolutePath());
+                command.add("-Dsatellite.fastStartup=true");
+                break;
+            case "fast":
+                command.add("-Dsatellite.fastStartup=true");
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown launch mode: " + launchMode);
+        }
+        command.add("-cp");
+        command.add(jar.toAbsolutePath().toString());
+        command.add("com.satellite.Main");
+        command.add("--script");
+        command.add("-");
+    }
+
+    @Benchmark
+    public String firstCommand() throws IOException {
+        process = new ProcessBuilder(command)
+                .directory(workingDirectory.toFile())
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        OutputStream stdin = process.getOutputStream();
+        stdin.write(SCRIPT);
+        stdin.flush();
+        BufferedReader stdout = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line = stdout.readLine();
+        if (line == null || !line.startsWith("Orientation: EAST")) {
+            throw new IllegalStateException("Unexpected satellite output: " + line);
+        }
+        return line;
+    }
+
+    @TearDown(Level.Invocation)
+    public void stopProcess() throws IOException, InterruptedException {
+        if (process != null) {
+            process.getOutputStream().close();
+            process.waitFor();
+            process = null;
+        }
+    }
+}
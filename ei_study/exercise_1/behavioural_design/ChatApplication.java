@@ -12,12 +12,60 @@
 //    or empty, an exception is thrown.
 // 4. **Logging** is integrated at key points to track when users are added or removed from
 //    notifications and when notifications are sent.
+// 5. The **AsyncChatRoom** class is a high-fanout variant of the subject. Each observer gets a bounded
+//    mailbox that a shared delivery pool drains in batches, so one slow user no longer stalls the
+//    sender or the rest of the room. A **SlowConsumerPolicy** decides what happens when a mailbox
+//    is full: block the sender briefly, drop the message, or evict the observer.
+// 6. The **ChatServer** class manages many rooms at once. Rooms are spread over lock-striped shards,
+//    an index from each user to their rooms makes join and leave O(1), and each room keeps a small
+//    ring buffer of recent messages so late joiners can catch up.
+// 7. The **ChatEventLog** class gives a ChatRoom a durable, replayable history. Messages are appended
+//    in batches to segmented files with a sparse offset index, read back through memory-mapped
+//    segments from any offset, and old segments are expired by a **RetentionPolicy**.
+// 8. The **FilteredChatRoom** class lets observers subscribe by sender, keyword, @mention or #tag.
+//    Subscriptions live in an inverted index, so a message only reaches, and only costs, the
+//    observers whose predicates it matches.
 //
 // This pattern is especially useful in real-time applications where multiple objects need to
 // be informed of updates in a scalable and efficient manner.
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 interface Observer {
@@ -26,36 +74,1148 @@ interface Observer {
 
 interface Subject {
     void addObserver(Observer observer);
+    // Removes one observer equal to the argument, as List.remove(Object) does.
     void removeObserver(Observer observer);
     void notifyObservers(String message);
 }
 
+// Immutable view of the first size() slots of a growable array, for observer
+// lists that every message walks but that change rarely. Appending writes past
+// the end of every existing view and shares the array, so adding n elements
+// one at a time costs O(n) in total instead of a full copy per add; removal
+// copies. Changes are made on the latest view under the owner's lock, and
+// readers iterate whichever view they loaded without locking.
+final class SnapshotArray<T> {
+    private final T[] elements;
+    private final int size;
+
+    SnapshotArray(T[] empty) {
+        this(empty, 0);
+    }
+
+    private SnapshotArray(T[] elements, int size) {
+        this.elements = elements;
+        this.size = size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    T get(int index) {
+        return elements[index];
+    }
+
+    SnapshotArray<T> append(T element) {
+        T[] target = elements;
+        if (size == target.length) {
+            target = Arrays.copyOf(elements, Math.max(8, size * 2));
+        }
+        target[size] = element;
+        return new SnapshotArray<>(target, size + 1);
+    }
+
+    SnapshotArray<T> remove(int index) {
+        T[] target = Arrays.copyOf(elements, size);
+        System.arraycopy(target, index + 1, target, index, size - index - 1);
+        target[size - 1] = null;
+        return new SnapshotArray<>(target, size - 1);
+    }
+}
+
 class ChatRoom implements Subject {
-    private List<Observer> users = new ArrayList<>();
+    private volatile SnapshotArray<Observer> users = new SnapshotArray<>(new Observer[0]);
     private static final Logger logger = Logger.getLogger(ChatRoom.class.getName());
+    private volatile ChatEventLog eventLog;
+
+    public void setEventLog(ChatEventLog eventLog) {
+        this.eventLog = eventLog;
+    }
+
+    // Catches a reconnecting user up from the event log and returns the offset
+    // to resume from next time.
+    public long replay(Observer observer, long fromOffset) throws IOException {
+        ChatEventLog log = eventLog;
+        if (log == null) {
+            throw new IllegalStateException("Chat room has no event log");
+        }
+        log.flush();
+        long offset = fromOffset;
+        long end = log.getEndOffset();
+        while (offset < end) {
+            long next = log.read(offset, 1024, observer);
+            if (next == offset) {
+                break;
+            }
+            offset = next;
+        }
+        return offset;
+    }
+
+    @Override
+    public synchronized void addObserver(Observer observer) {
+        users = users.append(observer);
+        logger.info("User added: " + observer);
+    }
+
+    @Override
+    public synchronized void removeObserver(Observer observer) {
+        SnapshotArray<Observer> current = users;
+        for (int i = 0; i < current.size(); i++) {
+            if (Objects.equals(current.get(i), observer)) {
+                users = current.remove(i);
+                break;
+            }
+        }
+        logger.info("User removed: " + observer);
+    }
+
+    @Override
+    public void notifyObservers(String message) {
+        if (message == null || message.isEmpty()) {
+            throw new IllegalArgumentException("Message cannot be null or empty");
+        }
+
+        ChatEventLog log = eventLog;
+        if (log != null) {
+            try {
+                log.append(message);
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Failed to append message to the chat event log", e);
+            }
+        }
+        SnapshotArray<Observer> current = users;
+        for (int i = 0; i < current.size(); i++) {
+            current.get(i).update(message);
+        }
+        logger.info("All users notified.");
+    }
+}
+
+enum SlowConsumerPolicy {
+    BLOCK, DROP, EVICT
+}
+
+class AsyncChatRoom implements Subject, AutoCloseable {
+    private static final Logger logger = Logger.getLogger(AsyncChatRoom.class.getName());
+    private static final AtomicInteger roomIds = new AtomicInteger();
+
+    private final ExecutorService deliveryPool;
+    private final int mailboxCapacity;
+    private final int batchSize;
+    private final SlowConsumerPolicy policy;
+    private final long blockTimeoutMillis;
+    private final AtomicLong droppedMessages = new AtomicLong();
+
+    // Registration is rare, while every message walks the whole snapshot
+    // without taking a lock. The map, guarded by this, finds an observer's
+    // mailbox without scanning the snapshot.
+    private volatile SnapshotArray<Mailbox> mailboxes = new SnapshotArray<>(new Mailbox[0]);
+    private final Map<Observer, Mailbox> mailboxByObserver = new HashMap<>();
+
+    public AsyncChatRoom() {
+        this(Runtime.getRuntime().availableProcessors(), 1024, 64, SlowConsumerPolicy.EVICT, 10);
+    }
+
+    public AsyncChatRoom(int deliveryThreads, int mailboxCapacity, int batchSize,
+                         SlowConsumerPolicy policy, long blockTimeoutMillis) {
+        if (deliveryThreads <= 0 || mailboxCapacity <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Delivery threads, mailbox capacity and batch size must be positive");
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("Slow consumer policy cannot be null");
+        }
+        String threadPrefix = "chat-delivery-" + roomIds.incrementAndGet() + "-";
+        AtomicInteger threadIds = new AtomicInteger();
+        this.deliveryPool = Executors.newFixedThreadPool(deliveryThreads, runnable -> {
+            Thread thread = new Thread(runnable, threadPrefix + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.mailboxCapacity = mailboxCapacity;
+        this.batchSize = batchSize;
+        this.policy = policy;
+        this.blockTimeoutMillis = blockTimeoutMillis;
+    }
+
+    @Override
+    public synchronized void addObserver(Observer observer) {
+        if (observer == null) {
+            throw new IllegalArgumentException("Observer cannot be null");
+        }
+        if (mailboxByObserver.containsKey(observer)) {
+            return;
+        }
+        Mailbox mailbox = new Mailbox(observer);
+        mailboxByObserver.put(observer, mailbox);
+        mailboxes = mailboxes.append(mailbox);
+        logger.info("User added: " + observer);
+    }
+
+    @Override
+    public synchronized void removeObserver(Observer observer) {
+        Mailbox mailbox = mailboxByObserver.remove(observer);
+        if (mailbox == null) {
+            return;
+        }
+        SnapshotArray<Mailbox> current = mailboxes;
+        for (int i = 0; i < current.size(); i++) {
+            if (current.get(i) == mailbox) {
+                mailboxes = current.remove(i);
+                break;
+            }
+        }
+        mailbox.closed = true;
+        logger.info("User removed: " + observer);
+    }
+
+    @Override
+    public void notifyObservers(String message) {
+        if (message == null || message.isEmpty()) {
+            throw new IllegalArgumentException("Message cannot be null or empty");
+        }
+        SnapshotArray<Mailbox> current = mailboxes;
+        for (int i = 0; i < current.size(); i++) {
+            current.get(i).offer(message);
+        }
+    }
+
+    public int getObserverCount() {
+        return mailboxes.size();
+    }
+
+    public long getDroppedMessages() {
+        return droppedMessages.get();
+    }
+
+    @Override
+    public void close() {
+        deliveryPool.shutdown();
+        try {
+            deliveryPool.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class Mailbox implements Runnable {
+        private final Observer observer;
+        private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(mailboxCapacity);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final List<String> batch = new ArrayList<>(batchSize);
+        private volatile boolean closed;
+
+        Mailbox(Observer observer) {
+            this.observer = observer;
+        }
+
+        void offer(String message) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(message) && !handleFullMailbox(message)) {
+                return;
+            }
+            schedule();
+        }
+
+        private boolean handleFullMailbox(String message) {
+            switch (policy) {
+                case BLOCK:
+                    try {
+                        if (queue.offer(message, blockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                            return true;
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    droppedMessages.incrementAndGet();
+                    return false;
+                case EVICT:
+                    droppedMessages.incrementAndGet();
+                    logger.warning("Evicting slow user: " + observer);
+                    removeObserver(observer);
+                    return false;
+                default:
+                    droppedMessages.incrementAndGet();
+                    return false;
+            }
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    deliveryPool.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                    droppedMessages.addAndGet(queue.size());
+                    queue.clear();
+                }
+            }
+        }
+
+        // Only one pool thread drains a mailbox at a time, which keeps each
+        // observer's messages in order without locking the observer.
+        @Override
+        public void run() {
+            queue.drainTo(batch, batchSize);
+            for (String message : batch) {
+                if (closed) {
+                    break;
+                }
+                try {
+                    observer.update(message);
+                } catch (RuntimeException e) {
+                    logger.log(Level.WARNING, "Delivery to " + observer + " failed.", e);
+                }
+            }
+            batch.clear();
+            scheduled.set(false);
+            if (!queue.isEmpty() && !closed) {
+                schedule();
+            }
+        }
+    }
+}
+
+// Not a Subject: every join, leave and publish names a room, which the
+// single-topic Subject methods have no way to express. Each room is the
+// subject here, and both the room count and each room's membership are capped.
+class ChatServer {
+    private static final Logger logger = Logger.getLogger(ChatServer.class.getName());
+
+    private final Shard[] shards;
+    private final int maxRooms;
+    private final int maxMembersPerRoom;
+    private final int historyCapacity;
+    private final AtomicLong roomCount = new AtomicLong();
+    private final Map<Observer, Set<String>> roomsByUser = new ConcurrentHashMap<>();
+
+    public ChatServer(int shardCount, int maxRooms, int maxMembersPerRoom, int historyCapacity) {
+        if (shardCount <= 0 || maxRooms <= 0 || maxMembersPerRoom <= 0 || historyCapacity < 0) {
+            throw new IllegalArgumentException("Invalid chat server limits");
+        }
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard();
+        }
+        this.maxRooms = maxRooms;
+        this.maxMembersPerRoom = maxMembersPerRoom;
+        this.historyCapacity = historyCapacity;
+    }
+
+    // Returns the room's recent history so the caller can replay it to the new member.
+    public List<String> join(String roomName, Observer user) {
+        validate(roomName, user);
+        Shard shard = shardFor(roomName);
+        List<String> history;
+        synchronized (shard) {
+            Room room = shard.rooms.get(roomName);
+            if (room == null) {
+                if (roomCount.incrementAndGet() > maxRooms) {
+                    roomCount.decrementAndGet();
+                    throw new IllegalStateException("Room limit reached: " + maxRooms);
+                }
+                room = new Room(roomName);
+                shard.rooms.put(roomName, room);
+            } else if (room.members.size() >= maxMembersPerRoom && !room.members.contains(user)) {
+                throw new IllegalStateException("Room is full: " + roomName);
+            }
+            room.members.add(user);
+            history = room.history();
+            // The reverse index changes under the same shard lock as the
+            // membership, and atomically per user, so a concurrent leave can
+            // never drop an index entry that a join has just added.
+            roomsByUser.compute(user, (key, rooms) -> {
+                Set<String> updated = rooms == null ? ConcurrentHashMap.newKeySet() : rooms;
+                updated.add(roomName);
+                return updated;
+            });
+        }
+        return history;
+    }
+
+    public void leave(String roomName, Observer user) {
+        validate(roomName, user);
+        removeMember(roomName, user);
+    }
+
+    public void disconnect(Observer user) {
+        Set<String> rooms = roomsByUser.get(user);
+        if (rooms == null) {
+            return;
+        }
+        List<String> joined = new ArrayList<>(rooms);
+        for (String roomName : joined) {
+            removeMember(roomName, user);
+        }
+        logger.info("User disconnected from " + joined.size() + " rooms: " + user);
+    }
+
+    public int publish(String roomName, String message) {
+        if (message == null || message.isEmpty()) {
+            throw new IllegalArgumentException("Message cannot be null or empty");
+        }
+        Shard shard = shardFor(roomName);
+        Observer[] recipients;
+        synchronized (shard) {
+            Room room = shard.rooms.get(roomName);
+            if (room == null) {
+                return 0;
+            }
+            room.record(message);
+            recipients = room.members.toArray(new Observer[0]);
+        }
+        // Delivery runs outside the shard lock so a slow user only delays this call.
+        for (Observer recipient : recipients) {
+            recipient.update(message);
+        }
+        return recipients.length;
+    }
+
+    public Set<String> roomsOf(Observer user) {
+        Set<String> rooms = roomsByUser.get(user);
+        return rooms == null ? Collections.emptySet() : Collections.unmodifiableSet(rooms);
+    }
+
+    public long getRoomCount() {
+        return roomCount.get();
+    }
+
+    private void removeMember(String roomName, Observer user) {
+        Shard shard = shardFor(roomName);
+        synchronized (shard) {
+            roomsByUser.computeIfPresent(user, (key, rooms) -> {
+                rooms.remove(roomName);
+                return rooms.isEmpty() ? null : rooms;
+            });
+            Room room = shard.rooms.get(roomName);
+            if (room == null || !room.members.remove(user)) {
+                return;
+            }
+            // Empty rooms are dropped with their history to keep memory bounded.
+            if (room.members.isEmpty()) {
+                shard.rooms.remove(roomName);
+                roomCount.decrementAndGet();
+            }
+        }
+    }
+
+    private Shard shardFor(String roomName) {
+        return shards[Math.floorMod(roomName.hashCode(), shards.length)];
+    }
+
+    private static void validate(String roomName, Observer user) {
+        if (roomName == null || roomName.isEmpty()) {
+            throw new IllegalArgumentException("Room name cannot be null or empty");
+        }
+        if (user == null) {
+            throw new IllegalArgumentException("User cannot be null");
+        }
+    }
+
+    private static final class Shard {
+        private final Map<String, Room> rooms = new HashMap<>();
+    }
+
+    private final class Room {
+        private final String name;
+        private final Set<Observer> members = new LinkedHashSet<>();
+        private String[] history;
+        private int head;
+        private int size;
+
+        Room(String name) {
+            this.name = name;
+        }
+
+        // The ring is allocated on the first message, so idle rooms cost no history space.
+        void record(String message) {
+            if (historyCapacity == 0) {
+                return;
+            }
+            if (history == null) {
+                history = new String[historyCapacity];
+            }
+            history[(head + size) % historyCapacity] = message;
+            if (size < historyCapacity) {
+                size++;
+            } else {
+                head = (head + 1) % historyCapacity;
+            }
+        }
+
+        List<String> history() {
+            List<String> messages = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                messages.add(history[(head + i) % historyCapacity]);
+            }
+            return messages;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
+
+enum SubscriptionField {
+    SENDER, KEYWORD, MENTION, TAG
+}
+
+class Subscription {
+    private final SubscriptionField field;
+    private final String term;
+
+    private Subscription(SubscriptionField field, String term) {
+        if (term == null || term.isEmpty()) {
+            throw new IllegalArgumentException("Subscription term cannot be null or empty");
+        }
+        this.field = field;
+        this.term = term.toLowerCase(Locale.ROOT);
+    }
+
+    public static Subscription sender(String sender) {
+        return new Subscription(SubscriptionField.SENDER, sender);
+    }
+
+    public static Subscription keyword(String keyword) {
+        return new Subscription(SubscriptionField.KEYWORD, token(keyword, '\0'));
+    }
+
+    // Matches "@name" in the message text; a leading '@' is optional.
+    public static Subscription mention(String name) {
+        return new Subscription(SubscriptionField.MENTION, token(name, '@'));
+    }
+
+    // Matches "#tag" in the message text; a leading '#' is optional.
+    public static Subscription tag(String tag) {
+        return new Subscription(SubscriptionField.TAG, token(tag, '#'));
+    }
+
+    // Message text is split into runs of letters and digits, so a term with
+    // any other character could never match and is rejected up front.
+    private static String token(String term, char marker) {
+        if (term == null || term.isEmpty()) {
+            throw new IllegalArgumentException("Subscription term cannot be null or empty");
+        }
+        String token = term.charAt(0) == marker ? term.substring(1) : term;
+        if (token.isEmpty() || !token.chars().allMatch(Character::isLetterOrDigit)) {
+            throw new IllegalArgumentException("Subscription term must be letters and digits only: " + term);
+        }
+        return token;
+    }
+
+    SubscriptionField getField() {
+        return field;
+    }
+
+    String getTerm() {
+        return term;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Subscription)) {
+            return false;
+        }
+        Subscription that = (Subscription) other;
+        return field == that.field && term.equals(that.term);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * field.hashCode() + term.hashCode();
+    }
+}
+
+class FilteredChatRoom implements Subject {
+    private static final Logger logger = Logger.getLogger(FilteredChatRoom.class.getName());
+    private static final Observer[] NONE = new Observer[0];
+
+    // Observers registered without a predicate still receive every message.
+    private final List<Observer> broadcast = new CopyOnWriteArrayList<>();
+    // One inverted index per field, from lower-cased term to its subscribers.
+    // Posting lists are copy-on-write arrays, so publishing never locks.
+    private final Map<SubscriptionField, ConcurrentHashMap<String, Observer[]>> index =
+            new EnumMap<>(SubscriptionField.class);
+    private final Map<Observer, Set<Subscription>> subscriptionsByObserver = new ConcurrentHashMap<>();
+
+    public FilteredChatRoom() {
+        for (SubscriptionField field : SubscriptionField.values()) {
+            index.put(field, new ConcurrentHashMap<>());
+        }
+    }
 
     @Override
     public void addObserver(Observer observer) {
-        users.add(observer);
+        if (observer == null) {
+            throw new IllegalArgumentException("Observer cannot be null");
+        }
+        broadcast.add(observer);
         logger.info("User added: " + observer);
     }
 
+    // Removes the observer from the broadcast list and from every subscription.
     @Override
     public void removeObserver(Observer observer) {
-        users.remove(observer);
+        broadcast.remove(observer);
+        Set<Subscription> subscriptions = subscriptionsByObserver.remove(observer);
+        if (subscriptions != null) {
+            for (Subscription subscription : subscriptions) {
+                index.get(subscription.getField()).computeIfPresent(subscription.getTerm(),
+                        (key, observers) -> without(observers, observer));
+            }
+        }
         logger.info("User removed: " + observer);
     }
 
+    public void subscribe(Observer observer, Subscription subscription) {
+        if (observer == null || subscription == null) {
+            throw new IllegalArgumentException("Observer and subscription cannot be null");
+        }
+        index.get(subscription.getField()).merge(subscription.getTerm(), new Observer[] {observer},
+                (current, added) -> {
+                    for (Observer existing : current) {
+                        if (existing == observer) {
+                            return current;
+                        }
+                    }
+                    Observer[] updated = Arrays.copyOf(current, current.length + 1);
+                    updated[current.length] = observer;
+                    return updated;
+                });
+        subscriptionsByObserver.compute(observer, (key, subscriptions) -> {
+            Set<Subscription> updated = subscriptions == null ? ConcurrentHashMap.newKeySet() : subscriptions;
+            updated.add(subscription);
+            return updated;
+        });
+        logger.fine("Subscription added for " + observer);
+    }
+
+    public void unsubscribe(Observer observer, Subscription subscription) {
+        if (observer == null || subscription == null) {
+            return;
+        }
+        subscriptionsByObserver.computeIfPresent(observer, (key, subscriptions) -> {
+            subscriptions.remove(subscription);
+            return subscriptions.isEmpty() ? null : subscriptions;
+        });
+        index.get(subscription.getField()).computeIfPresent(subscription.getTerm(),
+                (key, observers) -> without(observers, observer));
+    }
+
     @Override
     public void notifyObservers(String message) {
+        publish(null, message);
+    }
+
+    // Delivery cost is proportional to the tokens in the message plus the
+    // observers that match them, not to the number of subscribers in the room.
+    // An observer matching several predicates, or also registered for every
+    // message, receives it once.
+    public int publish(String sender, String message) {
         if (message == null || message.isEmpty()) {
             throw new IllegalArgumentException("Message cannot be null or empty");
         }
+        Delivery delivery = new Delivery(message);
+        if (sender != null) {
+            delivery.offer(lookup(SubscriptionField.SENDER, sender.toLowerCase(Locale.ROOT)));
+        }
+        int length = message.length();
+        int position = 0;
+        while (position < length) {
+            char marker = message.charAt(position);
+            SubscriptionField field = SubscriptionField.KEYWORD;
+            if (marker == '@' || marker == '#') {
+                field = marker == '@' ? SubscriptionField.MENTION : SubscriptionField.TAG;
+                position++;
+            }
+            int start = position;
+            while (position < length && Character.isLetterOrDigit(message.charAt(position))) {
+                position++;
+            }
+            if (position == start) {
+                position++;
+                continue;
+            }
+            delivery.offer(lookup(field, message.substring(start, position).toLowerCase(Locale.ROOT)));
+        }
+        delivery.offer(broadcast.toArray(NONE));
+        return delivery.count();
+    }
+
+    private Observer[] lookup(SubscriptionField field, String term) {
+        Observer[] observers = index.get(field).get(term);
+        return observers == null ? NONE : observers;
+    }
 
-        for (Observer user : users) {
-            user.update(message);
+    private static Observer[] without(Observer[] observers, Observer observer) {
+        for (int i = 0; i < observers.length; i++) {
+            if (observers[i] == observer) {
+                if (observers.length == 1) {
+                    return null;
+                }
+                Observer[] updated = new Observer[observers.length - 1];
+                System.arraycopy(observers, 0, updated, 0, i);
+                System.arraycopy(observers, i + 1, updated, i, observers.length - i - 1);
+                return updated;
+            }
+        }
+        return observers;
+    }
+
+    // Most messages match zero or one subscriber, so the identity set used to
+    // suppress duplicates is only allocated once a second observer turns up.
+    private static final class Delivery {
+        private final String message;
+        private Observer first;
+        private Set<Observer> delivered;
+
+        Delivery(String message) {
+            this.message = message;
+        }
+
+        void offer(Observer[] observers) {
+            for (Observer observer : observers) {
+                if (first == null) {
+                    first = observer;
+                } else if (observer == first) {
+                    continue;
+                } else {
+                    if (delivered == null) {
+                        delivered = Collections.newSetFromMap(new IdentityHashMap<>());
+                        delivered.add(first);
+                    }
+                    if (!delivered.add(observer)) {
+                        continue;
+                    }
+                }
+                observer.update(message);
+            }
+        }
+
+        int count() {
+            return delivered != null ? delivered.size() : first != null ? 1 : 0;
+        }
+    }
+}
+
+class RetentionPolicy {
+    private final int maxSegments;
+    private final long maxAgeMillis;
+
+    // Zero disables a limit. The active segment is never removed.
+    public RetentionPolicy(int maxSegments, long maxAgeMillis) {
+        if (maxSegments < 0 || maxAgeMillis < 0) {
+            throw new IllegalArgumentException("Retention limits cannot be negative");
+        }
+        this.maxSegments = maxSegments;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    public static RetentionPolicy unlimited() {
+        return new RetentionPolicy(0, 0);
+    }
+
+    boolean shouldExpire(int segmentCount, long lastAppendMillis, long nowMillis) {
+        return (maxSegments > 0 && segmentCount > maxSegments)
+                || (maxAgeMillis > 0 && nowMillis - lastAppendMillis > maxAgeMillis);
+    }
+}
+
+class ChatEventLog implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(ChatEventLog.class.getName());
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String INDEX_SUFFIX = ".idx";
+    // Record layout: int payload length, long timestamp, UTF-8 payload.
+    private static final int RECORD_HEADER = Integer.BYTES + Long.BYTES;
+    // One daemon thread flushes every open log, so a quiet room's last
+    // messages do not sit in the batch until the next append.
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "chat-log-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int indexIntervalBytes;
+    private final RetentionPolicy retention;
+    private final ByteBuffer batch;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ScheduledFuture<?> periodicFlush;
+    private Segment active;
+    private long nextOffset;
+    private volatile long flushedOffset;
+    private boolean closed;
+
+    public ChatEventLog(Path directory) throws IOException {
+        this(directory, 64 << 20, 64 << 10, 4096, 1000, RetentionPolicy.unlimited());
+    }
+
+    // A positive flushIntervalMillis writes out buffered appends at least that
+    // often; zero leaves it to flush(), sync() and full batches.
+    public ChatEventLog(Path directory, int segmentBytes, int batchBytes, int indexIntervalBytes,
+                        long flushIntervalMillis, RetentionPolicy retention) throws IOException {
+        if (directory == null || retention == null) {
+            throw new IllegalArgumentException("Directory and retention policy cannot be null");
+        }
+        if (segmentBytes <= RECORD_HEADER || batchBytes <= RECORD_HEADER || indexIntervalBytes <= 0) {
+            throw new IllegalArgumentException("Segment, batch and index sizes must be positive");
+        }
+        if (flushIntervalMillis < 0) {
+            throw new IllegalArgumentException("Flush interval cannot be negative");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.indexIntervalBytes = indexIntervalBytes;
+        this.retention = retention;
+        this.batch = ByteBuffer.allocateDirect(batchBytes);
+        Files.createDirectories(directory);
+        recover();
+        this.periodicFlush = flushIntervalMillis == 0 ? null : FLUSHER.scheduleWithFixedDelay(
+                this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Appends are buffered and written in batches; a message becomes readable
+    // once its batch reaches the file, which flush() and the periodic flush force.
+    public synchronized long append(String message) throws IOException {
+        if (message == null || message.isEmpty()) {
+            throw new IllegalArgumentException("Message cannot be null or empty");
+        }
+        byte[] payload = message.getBytes(StandardCharsets.UTF_8);
+        int recordSize = RECORD_HEADER + payload.length;
+        if (recordSize > segmentBytes) {
+            throw new IllegalArgumentException("Message is larger than a log segment");
+        }
+        if (active.size + batch.position() + recordSize > segmentBytes) {
+            roll();
+        }
+        long position = active.size + batch.position();
+        if (position >= active.lastIndexedPosition + indexIntervalBytes || active.indexCount == 0) {
+            active.addIndexEntry((int) (nextOffset - active.baseOffset), (int) position);
+        }
+        if (recordSize > batch.remaining()) {
+            writeBatch();
+        }
+        long timestamp = System.currentTimeMillis();
+        if (recordSize > batch.capacity()) {
+            ByteBuffer record = ByteBuffer.allocate(recordSize);
+            record.putInt(payload.length).putLong(timestamp).put(payload).flip();
+            active.write(record);
+        } else {
+            batch.putInt(payload.length).putLong(timestamp).put(payload);
+        }
+        active.lastAppendMillis = timestamp;
+        active.recordCount++;
+        return nextOffset++;
+    }
+
+    public synchronized void flush() throws IOException {
+        writeBatch();
+    }
+
+    public synchronized void sync() throws IOException {
+        writeBatch();
+        active.channel.force(false);
+    }
+
+    private synchronized void flushQuietly() {
+        if (closed) {
+            return;
+        }
+        try {
+            writeBatch();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Periodic flush of the chat event log failed", e);
+        }
+    }
+
+    // Delivers up to maxMessages messages starting at fromOffset and returns the
+    // offset to resume from. Offsets that retention already removed resume at
+    // the oldest retained message.
+    public long read(long fromOffset, int maxMessages, Observer observer) throws IOException {
+        if (observer == null || maxMessages <= 0) {
+            throw new IllegalArgumentException("Observer is required and maxMessages must be positive");
+        }
+        long offset = Math.max(fromOffset, getStartOffset());
+        int delivered = 0;
+        while (delivered < maxMessages && offset < flushedOffset) {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(offset);
+            if (entry == null) {
+                break;
+            }
+            Segment segment = entry.getValue();
+            ByteBuffer view = segment.view();
+            long end = Math.min(flushedOffset, segment.baseOffset + segment.recordCount);
+            long current = segment.baseOffset;
+            int indexSlot = segment.indexSlotFor((int) (offset - segment.baseOffset));
+            if (indexSlot >= 0) {
+                current += segment.indexOffsets[indexSlot];
+                view.position(segment.indexPositions[indexSlot]);
+            }
+            while (current < end && delivered < maxMessages && view.remaining() >= RECORD_HEADER) {
+                int length = view.getInt();
+                view.getLong();
+                if (current >= offset) {
+                    byte[] payload = new byte[length];
+                    view.get(payload);
+                    observer.update(new String(payload, StandardCharsets.UTF_8));
+                    delivered++;
+                } else {
+                    view.position(view.position() + length);
+                }
+                current++;
+            }
+            if (current == offset) {
+                break;
+            }
+            offset = current;
+        }
+        return offset;
+    }
+
+    public long getStartOffset() {
+        Map.Entry<Long, Segment> first = segments.firstEntry();
+        return first == null ? 0 : first.getKey();
+    }
+
+    public long getEndOffset() {
+        return flushedOffset;
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (periodicFlush != null) {
+            periodicFlush.cancel(false);
+        }
+        writeBatch();
+        for (Segment segment : segments.values()) {
+            segment.channel.close();
+        }
+    }
+
+    private void writeBatch() throws IOException {
+        if (batch.position() > 0) {
+            batch.flip();
+            active.write(batch);
+            batch.clear();
+        }
+        flushedOffset = nextOffset;
+    }
+
+    private void roll() throws IOException {
+        writeBatch();
+        active.seal();
+        active = Segment.create(directory, nextOffset);
+        segments.put(active.baseOffset, active);
+        applyRetention();
+    }
+
+    private void applyRetention() throws IOException {
+        long now = System.currentTimeMillis();
+        for (Segment oldest = segments.firstEntry().getValue(); oldest != active;
+                oldest = segments.firstEntry().getValue()) {
+            if (!retention.shouldExpire(segments.size(), oldest.lastAppendMillis, now)) {
+                break;
+            }
+            segments.remove(oldest.baseOffset);
+            oldest.delete();
+            logger.info("Expired chat log segment starting at offset " + oldest.baseOffset);
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Long> baseOffsets = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                baseOffsets.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+            }
+        }
+        Collections.sort(baseOffsets);
+        for (int i = 0; i < baseOffsets.size(); i++) {
+            boolean last = i == baseOffsets.size() - 1;
+            Segment segment = Segment.open(directory, baseOffsets.get(i), last, indexIntervalBytes);
+            segments.put(segment.baseOffset, segment);
+        }
+        if (segments.isEmpty()) {
+            active = Segment.create(directory, 0);
+            segments.put(0L, active);
+        } else {
+            active = segments.lastEntry().getValue();
+        }
+        nextOffset = active.baseOffset + active.recordCount;
+        flushedOffset = nextOffset;
+    }
+
+    private static final class Segment {
+        private final long baseOffset;
+        private final Path logFile;
+        private final Path indexFile;
+        private final FileChannel channel;
+        private volatile int size;
+        private volatile long recordCount;
+        private volatile long lastAppendMillis;
+        // Sparse index of (relative offset, file position). Entries below
+        // indexCount never change, so readers can use a stale array safely.
+        private volatile int[] indexOffsets = new int[16];
+        private volatile int[] indexPositions = new int[16];
+        private volatile int indexCount;
+        private int lastIndexedPosition;
+        private MappedByteBuffer mapped;
+
+        private Segment(long baseOffset, Path directory, FileChannel channel) {
+            this.baseOffset = baseOffset;
+            String name = String.format("%020d", baseOffset);
+            this.logFile = directory.resolve(name + SEGMENT_SUFFIX);
+            this.indexFile = directory.resolve(name + INDEX_SUFFIX);
+            this.channel = channel;
+            this.lastAppendMillis = System.currentTimeMillis();
+        }
+
+        static Segment create(Path directory, long baseOffset) throws IOException {
+            Path file = directory.resolve(String.format("%020d", baseOffset) + SEGMENT_SUFFIX);
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            return new Segment(baseOffset, directory, channel);
+        }
+
+        // Sealed segments load their persisted index and record count. The last
+        // segment, and any segment whose index was never written, is rescanned
+        // so a torn tail from a crash is truncated away; those need write access.
+        static Segment open(Path directory, long baseOffset, boolean active, int indexIntervalBytes)
+                throws IOException {
+            String name = String.format("%020d", baseOffset);
+            Path file = directory.resolve(name + SEGMENT_SUFFIX);
+            boolean indexed = !active && Files.exists(directory.resolve(name + INDEX_SUFFIX));
+            FileChannel channel = indexed
+                    ? FileChannel.open(file, StandardOpenOption.READ)
+                    : FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            Segment segment = new Segment(baseOffset, directory, channel);
+            segment.size = (int) channel.size();
+            segment.lastAppendMillis = Files.getLastModifiedTime(file).toMillis();
+            if (indexed) {
+                segment.loadIndex();
+            } else {
+                segment.rebuildIndex(indexIntervalBytes);
+            }
+            return segment;
+        }
+
+        void write(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                size += channel.write(buffer, size);
+            }
+        }
+
+        void addIndexEntry(int relativeOffset, int position) {
+            if (indexCount == indexOffsets.length) {
+                indexPositions = Arrays.copyOf(indexPositions, indexCount * 2);
+                indexOffsets = Arrays.copyOf(indexOffsets, indexCount * 2);
+            }
+            indexOffsets[indexCount] = relativeOffset;
+            indexPositions[indexCount] = position;
+            indexCount++;
+            lastIndexedPosition = position;
+        }
+
+        int indexSlotFor(int relativeOffset) {
+            int count = indexCount;
+            int[] offsets = indexOffsets;
+            int low = 0;
+            int high = count - 1;
+            int slot = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (offsets[mid] <= relativeOffset) {
+                    slot = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return slot;
+        }
+
+        // Remaps only when the file has grown past the current mapping.
+        synchronized ByteBuffer view() throws IOException {
+            int length = size;
+            if (mapped == null || mapped.capacity() < length) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            }
+            return mapped.duplicate().limit(length);
+        }
+
+        void seal() throws IOException {
+            channel.force(false);
+            ByteBuffer index = ByteBuffer.allocate(Long.BYTES + indexCount * 2 * Integer.BYTES);
+            index.putLong(recordCount);
+            for (int i = 0; i < indexCount; i++) {
+                index.putInt(indexOffsets[i]).putInt(indexPositions[i]);
+            }
+            index.flip();
+            // Synced under a temporary name and renamed, so recovery never
+            // loads a torn index.
+            Path temporary = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (index.hasRemaining()) {
+                    out.write(index);
+                }
+                out.force(true);
+            }
+            Files.move(temporary, indexFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        void delete() throws IOException {
+            channel.close();
+            Files.deleteIfExists(logFile);
+            Files.deleteIfExists(indexFile);
+        }
+
+        private void loadIndex() throws IOException {
+            ByteBuffer index = ByteBuffer.wrap(Files.readAllBytes(indexFile));
+            recordCount = index.getLong();
+            while (index.remaining() >= 2 * Integer.BYTES) {
+                addIndexEntry(index.getInt(), index.getInt());
+            }
+        }
+
+        private void rebuildIndex(int indexIntervalBytes) throws IOException {
+            ByteBuffer view = size == 0 ? ByteBuffer.allocate(0) : channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int position = 0;
+            while (view.remaining() >= RECORD_HEADER) {
+                int length = view.getInt(position);
+                if (length < 0 || position + RECORD_HEADER + length > size) {
+                    break;
+                }
+                if (indexCount == 0 || position >= lastIndexedPosition + indexIntervalBytes) {
+                    addIndexEntry((int) recordCount, position);
+                }
+                position += RECORD_HEADER + length;
+                view.position(position);
+                recordCount++;
+            }
+            if (position < size) {
+                logger.warning("Truncating torn tail of chat log segment " + logFile.getFileName());
+                channel.truncate(position);
+                size = position;
+            }
         }
-        logger.info("All users notified.");
     }
 }
 
@@ -86,5 +1246,106 @@ public class ChatApplication {
         chatRoom.addObserver(user2);
 
         chatRoom.notifyObservers("Welcome to the chat!");
+
+        try (AsyncChatRoom asyncRoom = new AsyncChatRoom()) {
+            asyncRoom.addObserver(user1);
+            asyncRoom.addObserver(user2);
+            asyncRoom.notifyObservers("Messages are now delivered asynchronously.");
+        }
+
+        ChatServer server = new ChatServer(16, 100_000, 10_000, 50);
+        server.join("general", user1);
+        server.publish("general", "Alice opened #general");
+        for (String missed : server.join("general", user2)) {
+            user2.update(missed);
+        }
+        server.disconnect(user1);
+
+        FilteredChatRoom filteredRoom = new FilteredChatRoom();
+        filteredRoom.subscribe(user1, Subscription.mention("alice"));
+        filteredRoom.subscribe(user2, Subscription.tag("release"));
+        filteredRoom.publish("Carol", "@alice the #release is ready");
+        filteredRoom.publish("Carol", "Lunch anyone?");
+
+        try {
+            Path logDirectory = Files.createTempDirectory("chat-log");
+            try (ChatEventLog eventLog = new ChatEventLog(logDirectory)) {
+                chatRoom.setEventLog(eventLog);
+                chatRoom.notifyObservers("This message is kept in the event log.");
+                chatRoom.replay(new User("Carol"), 0);
+            }
+        } catch (IOException e) {
+            System.err.println("Chat event log unavailable: " + e.getMessage());
+        }
+    }
+
+    // Setup hooks for the JMH benchmarks, which cannot name default-package
+    // classes and reach these reflectively instead. They live in this file so
+    // that only ChatApplication.java touches its own package-private types.
+    public static final class Fixtures {
+        private Fixtures() {
+        }
+
+        public static Runnable chatRoom(int observers, String message) {
+            ChatRoom chatRoom = new ChatRoom();
+            for (int i = 0; i < observers; i++) {
+                chatRoom.addObserver(new CountingObserver());
+            }
+            return () -> chatRoom.notifyObservers(message);
+        }
+
+        // The notifier is also AutoCloseable; closing it shuts the room's
+        // delivery pool down so trials do not leave threads behind.
+        public static Runnable asyncChatRoom(int observers, String message) {
+            AsyncChatRoom chatRoom = new AsyncChatRoom(Runtime.getRuntime().availableProcessors(),
+                    1024, 64, SlowConsumerPolicy.DROP, 0);
+            for (int i = 0; i < observers; i++) {
+                chatRoom.addObserver(new CountingObserver());
+            }
+            return new ClosingNotifier(chatRoom, message);
+        }
+
+        // Every subscriber follows one mention and one tag out of a pool of
+        // subscribers / 4 names, so each name or tag has about four followers
+        // however large the room grows.
+        public static Runnable filteredChatRoom(int subscribers, String message) {
+            FilteredChatRoom chatRoom = new FilteredChatRoom();
+            int names = Math.max(1, subscribers / 4);
+            for (int i = 0; i < subscribers; i++) {
+                Observer observer = new CountingObserver();
+                chatRoom.subscribe(observer, Subscription.mention("user" + (i % names)));
+                chatRoom.subscribe(observer, Subscription.tag("topic" + ((i * 7) % names)));
+            }
+            return () -> chatRoom.publish("user0", message);
+        }
+
+        private static final class ClosingNotifier implements Runnable, AutoCloseable {
+            private final AsyncChatRoom chatRoom;
+            private final String message;
+
+            ClosingNotifier(AsyncChatRoom chatRoom, String message) {
+                this.chatRoom = chatRoom;
+                this.message = message;
+            }
+
+            @Override
+            public void run() {
+                chatRoom.notifyObservers(message);
+            }
+
+            @Override
+            public void close() {
+                chatRoom.close();
+            }
+        }
+
+        private static final class CountingObserver implements Observer {
+            private int received;
+
+            @Override
+            public void update(String message) {
+                received += message.length();
+            }
+        }
     }
 }
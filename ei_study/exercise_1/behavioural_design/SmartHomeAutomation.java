@@ -10,9 +10,22 @@
 // 4. The design avoids hardcoding loops or flag conditions by encapsulating the actions into separate command objects.
 // 5. **Logging** captures every action (turning on/off) for traceability and debugging.
 // 6. **Defensive programming** ensures that commands are valid and prevent any null states.
+// 7. The **DeviceController** scales the invoker to many devices. Each device keeps its own undo/redo
+//    **CommandHistory**, a fixed-size ring that forgets the oldest command once its depth is reached.
+// 8. A **MacroCommand** runs several commands as one atomic batch: if one fails, the ones already run
+//    are undone, and the whole batch undoes as a single step.
+// 9. The **TimingWheelScheduler** runs timed commands from a hierarchical timing wheel on one thread,
+//    so each scheduled action costs one small node instead of a timer thread.
 //
 // This pattern is especially useful in smart home automation where multiple actions are performed by different devices.
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
 interface Command {
     void execute();
     void undo();
@@ -46,6 +59,309 @@ class LightOnCommand implements Command {
     }
 }
 
+class LightOffCommand implements Command {
+    private Light light;
+
+    public LightOffCommand(Light light) {
+        this.light = light;
+    }
+
+    @Override
+    public void execute() {
+        light.off();
+    }
+
+    @Override
+    public void undo() {
+        light.on();
+    }
+}
+
+class MacroCommand implements Command {
+    private final Command[] commands;
+
+    public MacroCommand(Command... commands) {
+        if (commands == null || commands.length == 0) {
+            throw new IllegalArgumentException("Macro must contain at least one command");
+        }
+        for (Command command : commands) {
+            if (command == null) {
+                throw new IllegalArgumentException("Macro cannot contain a null command");
+            }
+        }
+        this.commands = commands.clone();
+    }
+
+    @Override
+    public void execute() {
+        int executed = 0;
+        try {
+            for (Command command : commands) {
+                command.execute();
+                executed++;
+            }
+        } catch (RuntimeException e) {
+            for (int i = executed - 1; i >= 0; i--) {
+                commands[i].undo();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void undo() {
+        for (int i = commands.length - 1; i >= 0; i--) {
+            commands[i].undo();
+        }
+    }
+}
+
+class CommandHistory {
+    private final Command[] ring;
+    private int head;
+    private int undoable;
+    private int redoable;
+
+    public CommandHistory(int depth) {
+        if (depth <= 0) {
+            throw new IllegalArgumentException("History depth must be positive");
+        }
+        this.ring = new Command[depth];
+    }
+
+    // A new command discards the redo branch, and the oldest entry is
+    // overwritten once the ring is full.
+    public void record(Command command) {
+        int slot = (head + undoable) % ring.length;
+        for (int i = 1; i < redoable; i++) {
+            ring[(slot + i) % ring.length] = null;
+        }
+        ring[slot] = command;
+        redoable = 0;
+        if (undoable < ring.length) {
+            undoable++;
+        } else {
+            head = (head + 1) % ring.length;
+        }
+    }
+
+    public boolean undo() {
+        if (undoable == 0) {
+            return false;
+        }
+        undoable--;
+        redoable++;
+        ring[(head + undoable) % ring.length].undo();
+        return true;
+    }
+
+    public boolean redo() {
+        if (redoable == 0) {
+            return false;
+        }
+        ring[(head + undoable) % ring.length].execute();
+        undoable++;
+        redoable--;
+        return true;
+    }
+
+    public int undoDepth() {
+        return undoable;
+    }
+
+    public int redoDepth() {
+        return redoable;
+    }
+}
+
+class DeviceController {
+    private static final Logger logger = Logger.getLogger(DeviceController.class.getName());
+
+    private final Map<String, CommandHistory> histories = new ConcurrentHashMap<>();
+    private final int historyDepth;
+
+    public DeviceController(int historyDepth) {
+        if (historyDepth <= 0) {
+            throw new IllegalArgumentException("History depth must be positive");
+        }
+        this.historyDepth = historyDepth;
+    }
+
+    // Each device's history is only touched while holding that history, so
+    // commands for different devices never contend.
+    public void execute(String deviceId, Command command) {
+        if (command == null) {
+            throw new IllegalArgumentException("Command cannot be null");
+        }
+        CommandHistory history = historyFor(deviceId);
+        synchronized (history) {
+            command.execute();
+            history.record(command);
+        }
+    }
+
+    public boolean undo(String deviceId) {
+        CommandHistory history = historyFor(deviceId);
+        synchronized (history) {
+            return history.undo();
+        }
+    }
+
+    public boolean redo(String deviceId) {
+        CommandHistory history = historyFor(deviceId);
+        synchronized (history) {
+            return history.redo();
+        }
+    }
+
+    public void schedule(TimingWheelScheduler scheduler, long delayMillis, String deviceId, Command command) {
+        scheduler.schedule(delayMillis, () -> {
+            try {
+                execute(deviceId, command);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Scheduled command for " + deviceId + " failed.", e);
+            }
+        });
+    }
+
+    private CommandHistory historyFor(String deviceId) {
+        if (deviceId == null || deviceId.isEmpty()) {
+            throw new IllegalArgumentException("Device ID cannot be null or empty");
+        }
+        return histories.computeIfAbsent(deviceId, id -> new CommandHistory(historyDepth));
+    }
+}
+
+class TimingWheelScheduler implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(TimingWheelScheduler.class.getName());
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final TimerNode[][] wheels = new TimerNode[LEVELS][SLOTS];
+    private final List<TimerNode> overflow = new ArrayList<>();
+    private final Thread ticker;
+    private long currentTick;
+    private int pending;
+    private volatile boolean running = true;
+
+    public TimingWheelScheduler(long tickMillis) {
+        if (tickMillis <= 0 || tickMillis > Long.MAX_VALUE / 1_000_000L) {
+            throw new IllegalArgumentException("Tick duration must be positive and representable in nanoseconds");
+        }
+        this.tickMillis = tickMillis;
+        this.ticker = new Thread(this::runTicks, "timing-wheel");
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    public synchronized void schedule(long delayMillis, Runnable action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Scheduled action cannot be null");
+        }
+        // Rounded up without forming delayMillis + tickMillis, which overflows
+        // for delays near Long.MAX_VALUE; the deadline saturates instead of
+        // wrapping into the past.
+        long ticks = Math.max(1, delayMillis / tickMillis + (delayMillis % tickMillis > 0 ? 1 : 0));
+        place(new TimerNode(currentTick + Math.min(ticks, Long.MAX_VALUE - currentTick), action));
+        pending++;
+    }
+
+    public synchronized int pendingCount() {
+        return pending;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        ticker.interrupt();
+    }
+
+    // Level n holds timers due within 64^(n + 1) ticks; a slot on a coarser
+    // level is cascaded down when the finer wheel below it wraps around.
+    private void place(TimerNode node) {
+        long delta = node.deadline - currentTick;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (SLOT_BITS * (level + 1))) {
+                int slot = (int) (node.deadline >>> (SLOT_BITS * level)) & (SLOTS - 1);
+                node.next = wheels[level][slot];
+                wheels[level][slot] = node;
+                return;
+            }
+        }
+        overflow.add(node);
+    }
+
+    private void runTicks() {
+        long next = System.nanoTime();
+        while (running) {
+            next += tickMillis * 1_000_000L;
+            long sleep = next - System.nanoTime();
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep / 1_000_000L, (int) (sleep % 1_000_000L));
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            TimerNode due = advance();
+            for (TimerNode node = due; node != null; node = node.next) {
+                try {
+                    node.action.run();
+                } catch (RuntimeException e) {
+                    logger.log(Level.WARNING, "Scheduled action failed.", e);
+                }
+            }
+        }
+    }
+
+    private synchronized TimerNode advance() {
+        currentTick++;
+        int top = 0;
+        while (top + 1 < LEVELS && (currentTick & ((1L << (SLOT_BITS * (top + 1))) - 1)) == 0) {
+            top++;
+        }
+        if (top == LEVELS - 1 && !overflow.isEmpty()) {
+            TimerNode[] waiting = overflow.toArray(new TimerNode[0]);
+            overflow.clear();
+            for (TimerNode node : waiting) {
+                place(node);
+            }
+        }
+        // Coarser levels cascade first so their timers can land in finer slots
+        // that are cascaded on this same tick.
+        for (int level = top; level >= 1; level--) {
+            int slot = (int) (currentTick >>> (SLOT_BITS * level)) & (SLOTS - 1);
+            TimerNode node = wheels[level][slot];
+            wheels[level][slot] = null;
+            while (node != null) {
+                TimerNode next = node.next;
+                place(node);
+                node = next;
+            }
+        }
+        int slot = (int) currentTick & (SLOTS - 1);
+        TimerNode due = wheels[0][slot];
+        wheels[0][slot] = null;
+        for (TimerNode node = due; node != null; node = node.next) {
+            pending--;
+        }
+        return due;
+    }
+
+    private static final class TimerNode {
+        private final long deadline;
+        private final Runnable action;
+        private TimerNode next;
+
+        TimerNode(long deadline, Runnable action) {
+            this.deadline = deadline;
+            this.action = action;
+        }
+    }
+}
+
 class RemoteControl {
     private Command command;
 
@@ -72,5 +388,18 @@ public class SmartHomeAutomation {
 
         remote.pressButton();  // Light turns on
         remote.pressUndo();     // Light turns off
+
+        DeviceController controller = new DeviceController(16);
+        Light hallway = new Light();
+        controller.execute("hallway", new MacroCommand(new LightOnCommand(hallway), new LightOffCommand(hallway)));
+        controller.undo("hallway");   // Reverses the whole macro
+        controller.redo("hallway");
+
+        try (TimingWheelScheduler scheduler = new TimingWheelScheduler(10)) {
+            controller.schedule(scheduler, 50, "hallway", new LightOnCommand(hallway));
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 }
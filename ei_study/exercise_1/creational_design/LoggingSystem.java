@@ -7,6 +7,11 @@
 // 2. The **getInstance** method provides a global point of access and uses synchronization to ensure thread safety.
 // 3. **Defensive programming** ensures that only valid, non-empty messages are logged.
 // 4. **Logging** is used to monitor when a new instance is created and when messages are logged.
+// 5. Messages can also be logged as a **template with arguments**. The fields stay separate in the
+//    log record, so a structured handler such as com.satellite.StructuredLogHandler can store them
+//    in indexed binary segments instead of text. Attach it through logging.properties:
+//        ApplicationLogger.handlers = com.satellite.StructuredLogHandler
+//        com.satellite.StructuredLogHandler.directory = logs/structured
 //
 // The Singleton pattern is ideal for logging systems where only one instance should exist for the application lifecycle.
 
@@ -37,6 +42,16 @@ class ApplicationLogger {
         }
         logger.log(Level.INFO, message);
     }
+
+    public void logMessage(Level level, String template, Object... arguments) {
+        if (level == null) {
+            throw new IllegalArgumentException("Level cannot be null");
+        }
+        if (template == null || template.isEmpty()) {
+            throw new IllegalArgumentException("Message cannot be null or empty");
+        }
+        logger.log(level, template, arguments);
+    }
 }
 
 public class LoggingSystem {
@@ -46,5 +61,6 @@ public class LoggingSystem {
 
         ApplicationLogger anotherLogger = ApplicationLogger.getInstance();
         anotherLogger.logMessage("Performing some tasks.");
+        anotherLogger.logMessage(Level.WARNING, "Task {0} took {1} ms", "backup", 1250);
     }
 }
@@ -7,10 +7,20 @@
 // 2. It centralizes the object creation process and hides the instantiation logic from the client.
 // 3. **Defensive programming** ensures that only valid vehicle types are passed into the factory method.
 // 4. **Logging** is used to track which vehicle type is created.
+// 5. Vehicle types live in a **registry** keyed by lower-cased name (or by **VehicleType** ordinal), so
+//    lookup is a single map or array access and new types can be registered at runtime.
+// 6. Types registered as **stateless** can be served as one shared **flyweight** instead of allocating a
+//    new instance per call, and **createBulk** builds large batches in parallel and reports throughput.
 //
 // The Factory pattern is useful when the types of objects to be created may evolve in the future, centralizing and abstracting the creation process.
 
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
+import java.util.stream.IntStream;
 
 interface Vehicle {
     void create();
@@ -34,19 +44,140 @@ class Bike implements Vehicle {
     }
 }
 
+enum VehicleType {
+    CAR, BIKE
+}
+
 class VehicleFactory {
+    private static final Map<String, Registration> registry = new ConcurrentHashMap<>();
+    private static final Registration[] builtIns = new Registration[VehicleType.values().length];
+    private static volatile boolean poolingEnabled = false;
+
+    static {
+        builtIns[VehicleType.CAR.ordinal()] = add("Car", Car::new, true);
+        builtIns[VehicleType.BIKE.ordinal()] = add("Bike", Bike::new, true);
+    }
+
     public static Vehicle getVehicle(String type) {
+        return lookup(type).get();
+    }
+
+    public static Vehicle getVehicle(VehicleType type) {
+        if (type == null) {
+            throw new IllegalArgumentException("Vehicle type cannot be null");
+        }
+        return builtIns[type.ordinal()].get();
+    }
+
+    // While pooling is enabled a stateless type is served as one shared
+    // flyweight, so it must not carry per-vehicle state.
+    public static void register(String type, Supplier<? extends Vehicle> supplier, boolean stateless) {
+        add(type, supplier, stateless);
+    }
+
+    private static Registration add(String type, Supplier<? extends Vehicle> supplier, boolean stateless) {
+        if (type == null || type.isEmpty()) {
+            throw new IllegalArgumentException("Vehicle type cannot be null or empty");
+        }
+        if (supplier == null) {
+            throw new IllegalArgumentException("Vehicle supplier cannot be null");
+        }
+        Registration registration = new Registration(supplier, stateless);
+        registry.put(type.toLowerCase(Locale.ROOT), registration);
+        return registration;
+    }
+
+    public static void setPoolingEnabled(boolean enabled) {
+        poolingEnabled = enabled;
+    }
+
+    public static BulkCreationResult createBulk(String type, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Vehicle count cannot be negative");
+        }
+        Registration registration = lookup(type);
+        long start = System.nanoTime();
+        Vehicle[] vehicles = new Vehicle[count];
+        // Every slot of a flyweight batch is the same instance, so none of
+        // them counts as created.
+        Vehicle shared = registration.shared();
+        if (shared != null) {
+            Arrays.fill(vehicles, shared);
+            return new BulkCreationResult(vehicles, 0, System.nanoTime() - start);
+        }
+        IntStream.range(0, count).parallel().forEach(i -> vehicles[i] = registration.get());
+        return new BulkCreationResult(vehicles, count, System.nanoTime() - start);
+    }
+
+    private static Registration lookup(String type) {
         if (type == null || type.isEmpty()) {
             throw new IllegalArgumentException("Vehicle type cannot be null or empty");
         }
 
-        if (type.equalsIgnoreCase("Car")) {
-            return new Car();
-        } else if (type.equalsIgnoreCase("Bike")) {
-            return new Bike();
-        } else {
+        Registration registration = registry.get(type.toLowerCase(Locale.ROOT));
+        if (registration == null) {
             throw new IllegalArgumentException("Invalid vehicle type");
         }
+        return registration;
+    }
+
+    private static final class Registration {
+        private final Supplier<? extends Vehicle> supplier;
+        private final boolean stateless;
+        private volatile Vehicle flyweight;
+
+        Registration(Supplier<? extends Vehicle> supplier, boolean stateless) {
+            this.supplier = supplier;
+            this.stateless = stateless;
+        }
+
+        Vehicle get() {
+            Vehicle shared = shared();
+            return shared != null ? shared : supplier.get();
+        }
+
+        // The flyweight is created on first use; a race may build it twice,
+        // which is harmless for a stateless type.
+        Vehicle shared() {
+            if (!stateless || !poolingEnabled) {
+                return null;
+            }
+            Vehicle shared = flyweight;
+            if (shared == null) {
+                shared = supplier.get();
+                flyweight = shared;
+            }
+            return shared;
+        }
+    }
+}
+
+class BulkCreationResult {
+    private final Vehicle[] vehicles;
+    private final int created;
+    private final long elapsedNanos;
+
+    BulkCreationResult(Vehicle[] vehicles, int created, long elapsedNanos) {
+        this.vehicles = vehicles;
+        this.created = created;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public Vehicle[] getVehicles() {
+        return vehicles;
+    }
+
+    // Distinct instances actually built; zero when the batch is a flyweight.
+    public int getCreatedCount() {
+        return created;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0.0 : created * 1_000_000_000.0 / elapsedNanos;
     }
 }
 
@@ -57,5 +188,14 @@ public class VehicleManufacturing {
 
         Vehicle bike = VehicleFactory.getVehicle("Bike");
         bike.create();
+
+        BulkCreationResult batch = VehicleFactory.createBulk("car", 1_000_000);
+        System.out.printf("Created %d vehicles at %.0f vehicles/sec%n",
+                batch.getCreatedCount(), batch.getThroughput());
+
+        VehicleFactory.setPoolingEnabled(true);
+        BulkCreationResult shared = VehicleFactory.createBulk("car", 1_000_000);
+        System.out.printf("Served %d slots from one shared flyweight (%d created)%n",
+                shared.getVehicles().length, shared.getCreatedCount());
     }
 }
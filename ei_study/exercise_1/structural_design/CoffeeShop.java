@@ -8,57 +8,317 @@
 // 2. The **SimpleCoffee** class provides the base implementation of the coffee.
 // 3. The **CoffeeDecorator** abstract class is used to extend the functionality of the base coffee without modifying it.
 // 4. **Logging** is used to track the cost additions, and **defensive programming** ensures valid cost calculations.
+// 5. Every coffee knows its **CoffeeShape**, the interned sequence of component classes in its chain. The
+//    **PricingEngine** compiles a shape once into a flat **PriceQuote** of line items in whole cents and
+//    keeps quotes in a bounded concurrent cache, so pricing a known chain no longer walks the decorators.
+//    Each component's price is a single constant in cents that both cost() and the quote are derived from.
 //
 // This pattern is useful when behavior needs to be dynamically added to an object without altering its structure.
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
+// The pricing methods have defaults so that existing implementations that only
+// know cost() still compile; such a coffee is quoted as one opaque line item
+// and never cached.
 interface Coffee {
     double cost();
+
+    // The price this component adds on its own; it must depend only on the class.
+    default long lineItemCents() {
+        return Math.round(cost() * 100);
+    }
+
+    default String lineItemName() {
+        return getClass().getSimpleName();
+    }
+
+    default CoffeeShape shape() {
+        return CoffeeShape.opaque(getClass());
+    }
+}
+
+// At most MAX_INTERNED_SHAPES shapes are interned, so arbitrarily long or
+// varied chains cannot grow the trie without bound. Past the limit a chain
+// gets a private shape that is priced but never cached.
+final class CoffeeShape {
+    private static final int MAX_INTERNED_SHAPES = 4096;
+    private static final Map<Class<?>, CoffeeShape> roots = new ConcurrentHashMap<>();
+    private static final AtomicInteger internedShapes = new AtomicInteger();
+
+    private final CoffeeShape parent;
+    private final Class<?> component;
+    private final int depth;
+    private final boolean interned;
+    private final Map<Class<?>, CoffeeShape> children;
+
+    private CoffeeShape(CoffeeShape parent, Class<?> component, boolean interned) {
+        this.parent = parent;
+        this.component = component;
+        this.depth = parent == null ? 1 : parent.depth + 1;
+        this.interned = interned;
+        this.children = interned ? new ConcurrentHashMap<>() : null;
+    }
+
+    static CoffeeShape of(Class<?> base) {
+        return roots.computeIfAbsent(base, type -> new CoffeeShape(null, type, true));
+    }
+
+    // For a coffee whose price may vary per instance: priced, never cached.
+    static CoffeeShape opaque(Class<?> base) {
+        return new CoffeeShape(null, base, false);
+    }
+
+    CoffeeShape then(Class<?> decorator) {
+        if (!interned) {
+            return new CoffeeShape(this, decorator, false);
+        }
+        CoffeeShape child = children.get(decorator);
+        if (child != null) {
+            return child;
+        }
+        if (internedShapes.get() >= MAX_INTERNED_SHAPES) {
+            return new CoffeeShape(this, decorator, false);
+        }
+        return children.computeIfAbsent(decorator, type -> {
+            internedShapes.incrementAndGet();
+            return new CoffeeShape(this, type, true);
+        });
+    }
+
+    int depth() {
+        return depth;
+    }
+
+    boolean isInterned() {
+        return interned;
+    }
+
+    @Override
+    public String toString() {
+        return parent == null ? component.getSimpleName() : parent + " + " + component.getSimpleName();
+    }
 }
 
 class SimpleCoffee implements Coffee {
     private static final Logger logger = Logger.getLogger(SimpleCoffee.class.getName());
+    private static final CoffeeShape SHAPE = CoffeeShape.of(SimpleCoffee.class);
+    private static final long PRICE_CENTS = 500;
 
     @Override
     public double cost() {
-        logger.info("Simple coffee: $5.0");
-        return 5.0;
+        double cost = PRICE_CENTS / 100.0;
+        logger.info("Simple coffee: $" + cost);
+        return cost;
+    }
+
+    @Override
+    public long lineItemCents() {
+        return PRICE_CENTS;
+    }
+
+    @Override
+    public String lineItemName() {
+        return "Simple coffee";
+    }
+
+    @Override
+    public CoffeeShape shape() {
+        return SHAPE;
     }
 }
 
 abstract class CoffeeDecorator implements Coffee {
-    protected Coffee decoratedCoffee;
+    private final Coffee decoratedCoffee;
+    private final CoffeeShape shape;
 
     public CoffeeDecorator(Coffee coffee) {
+        if (coffee == null) {
+            throw new IllegalArgumentException("Decorated coffee cannot be null");
+        }
         this.decoratedCoffee = coffee;
+        this.shape = coffee.shape().then(getClass());
     }
 
     @Override
     public double cost() {
         return decoratedCoffee.cost();
     }
+
+    // What this decorator adds on top of the coffee it wraps, for subclasses
+    // that predate line items and only override cost().
+    @Override
+    public long lineItemCents() {
+        return Math.round((cost() - decoratedCoffee.cost()) * 100);
+    }
+
+    @Override
+    public CoffeeShape shape() {
+        return shape;
+    }
+
+    final Coffee decorated() {
+        return decoratedCoffee;
+    }
 }
 
 class MilkDecorator extends CoffeeDecorator {
+    private static final long PRICE_CENTS = 200;
+
     public MilkDecorator(Coffee coffee) {
         super(coffee);
     }
 
     @Override
     public double cost() {
-        return super.cost() + 2.0; // Adding cost for milk
+        return super.cost() + PRICE_CENTS / 100.0; // Adding cost for milk
+    }
+
+    @Override
+    public long lineItemCents() {
+        return PRICE_CENTS;
+    }
+
+    @Override
+    public String lineItemName() {
+        return "Milk";
     }
 }
 
 class SugarDecorator extends CoffeeDecorator {
+    private static final long PRICE_CENTS = 100;
+
     public SugarDecorator(Coffee coffee) {
         super(coffee);
     }
 
     @Override
     public double cost() {
-        return super.cost() + 1.0; // Adding cost for sugar
+        return super.cost() + PRICE_CENTS / 100.0; // Adding cost for sugar
+    }
+
+    @Override
+    public long lineItemCents() {
+        return PRICE_CENTS;
+    }
+
+    @Override
+    public String lineItemName() {
+        return "Sugar";
+    }
+}
+
+class PriceQuote {
+    private final String[] itemNames;
+    private final long[] itemCents;
+    private final long totalCents;
+
+    PriceQuote(String[] itemNames, long[] itemCents) {
+        this.itemNames = itemNames;
+        this.itemCents = itemCents;
+        long total = 0;
+        for (long cents : itemCents) {
+            total = Math.addExact(total, cents);
+        }
+        this.totalCents = total;
+    }
+
+    public int getItemCount() {
+        return itemNames.length;
+    }
+
+    public String getItemName(int index) {
+        return itemNames[index];
+    }
+
+    public long getItemCents(int index) {
+        return itemCents[index];
+    }
+
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    public BigDecimal getTotal() {
+        return BigDecimal.valueOf(totalCents, 2);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < itemNames.length; i++) {
+            text.append(itemNames[i]).append(": $").append(BigDecimal.valueOf(itemCents[i], 2)).append('\n');
+        }
+        return text.append("Total: $").append(getTotal()).toString();
+    }
+}
+
+// Cache hits are lock-free reads, so quoteAll scales across threads. The cache
+// is bounded rather than LRU: once full, arbitrary entries make room, and an
+// unlucky eviction only costs one walk of the chain on the next miss.
+class PricingEngine {
+    private final Map<CoffeeShape, PriceQuote> cache = new ConcurrentHashMap<>();
+    private final int maxCachedShapes;
+
+    public PricingEngine(int maxCachedShapes) {
+        if (maxCachedShapes <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.maxCachedShapes = maxCachedShapes;
+    }
+
+    public PriceQuote quote(Coffee coffee) {
+        if (coffee == null) {
+            throw new IllegalArgumentException("Coffee cannot be null");
+        }
+        CoffeeShape shape = coffee.shape();
+        PriceQuote cached = cache.get(shape);
+        if (cached != null) {
+            return cached;
+        }
+        PriceQuote compiled = compile(coffee, shape.depth());
+        if (shape.isInterned()) {
+            if (cache.size() >= maxCachedShapes) {
+                evict();
+            }
+            cache.putIfAbsent(shape, compiled);
+        }
+        return compiled;
+    }
+
+    private void evict() {
+        Iterator<CoffeeShape> shapes = cache.keySet().iterator();
+        while (cache.size() >= maxCachedShapes && shapes.hasNext()) {
+            shapes.next();
+            shapes.remove();
+        }
+    }
+
+    public List<PriceQuote> quoteAll(List<? extends Coffee> orders) {
+        return orders.parallelStream().map(this::quote).collect(Collectors.toList());
+    }
+
+    // Walks the chain once, outermost decorator first, and stores the line
+    // items base-first so the quote reads in the order the drink was built.
+    private static PriceQuote compile(Coffee coffee, int depth) {
+        String[] names = new String[depth];
+        long[] cents = new long[depth];
+        Coffee current = coffee;
+        for (int i = depth - 1; i >= 0; i--) {
+            names[i] = current.lineItemName();
+            cents[i] = current.lineItemCents();
+            current = current instanceof CoffeeDecorator ? ((CoffeeDecorator) current).decorated() : null;
+        }
+        return new PriceQuote(names, cents);
     }
 }
 
@@ -71,5 +331,41 @@ public class CoffeeShop {
         System.out.println("Cost of simple coffee: $" + simpleCoffee.cost());
         System.out.println("Cost of milk coffee: $" + milkCoffee.cost());
         System.out.println("Cost of milk and sugar coffee: $" + milkAndSugarCoffee.cost());
+
+        PricingEngine pricing = new PricingEngine(1024);
+        System.out.println(pricing.quote(milkAndSugarCoffee));
+
+        List<Coffee> orders = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            orders.add(i % 2 == 0 ? milkCoffee : milkAndSugarCoffee);
+        }
+        long total = pricing.quoteAll(orders).stream().mapToLong(PriceQuote::getTotalCents).sum();
+        System.out.println("Priced " + orders.size() + " orders: $" + BigDecimal.valueOf(total, 2));
+    }
+
+    // Setup hooks for the JMH benchmarks, which cannot name default-package
+    // classes and reach these reflectively instead.
+    public static final class Fixtures {
+        private Fixtures() {
+        }
+
+        public static DoubleSupplier coffeeChain(int depth) {
+            Coffee coffee = chain(depth);
+            return coffee::cost;
+        }
+
+        public static LongSupplier coffeeQuote(int depth) {
+            Coffee coffee = chain(depth);
+            PricingEngine pricing = new PricingEngine(1024);
+            return () -> pricing.quote(coffee).getTotalCents();
+        }
+
+        private static Coffee chain(int depth) {
+            Coffee coffee = new SimpleCoffee();
+            for (int i = 0; i < depth; i++) {
+                coffee = i % 2 == 0 ? new MilkDecorator(coffee) : new SugarDecorator(coffee);
+            }
+            return coffee;
+        }
     }
 }
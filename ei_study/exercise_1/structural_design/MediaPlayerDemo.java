@@ -3,13 +3,36 @@
 //
 // This implementation demonstrates the **Adapter Pattern**, where the media player supports both MP3 and MP4 file formats through an adapter.
 //
-// 1. The **AudioPlayer** class is the client that supports MP3 by default. When an MP4 file is played, the **MediaAdapter** bridges the gap.
+// 1. The **AudioPlayer** class is the client. It hands every file to the **MediaAdapter**, which looks up the codec for the format in a **CodecRegistry**.
 // 2. The **Mp4Player** acts as the adaptee, which provides the functionality to play MP4 files.
 // 3. **Defensive programming** ensures that only supported media types are played, and throws exceptions for unsupported types.
 // 4. **Logging** is used to track the file being played.
+// 5. The **StreamingMediaPlayer** reads real files through NIO channels, either memory-mapped or into a
+//    pool of reusable direct buffers, and hands fixed-size frames from a producer to a consumer thread.
+//    Frames are decoded by a **MediaCodec** looked up in a **CodecRegistry** keyed by format, which
+//    replaces the if/else chain; **Mp4Codec** adapts the existing Mp4Player to that interface.
 //
 // The Adapter pattern is useful in cases where two incompatible interfaces need to work together, like supporting multiple file formats in a media player.
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 interface MediaPlayer {
@@ -22,48 +45,362 @@ class Mp4Player {
     public void playMp4(String fileName) {
         logger.info("Playing MP4 file. Name: " + fileName);
     }
+
+    public long decodeMp4Frame(ByteBuffer frame) {
+        long checksum = 0;
+        while (frame.remaining() >= Long.BYTES) {
+            checksum += frame.getLong();
+        }
+        while (frame.hasRemaining()) {
+            checksum += frame.get();
+        }
+        return checksum;
+    }
 }
 
 class MediaAdapter implements MediaPlayer {
-    private Mp4Player mp4Player;
+    private final CodecRegistry codecs;
 
-    public MediaAdapter(String audioType) {
-        if (audioType.equalsIgnoreCase("MP4")) {
-            mp4Player = new Mp4Player();
+    public MediaAdapter(CodecRegistry codecs) {
+        if (codecs == null) {
+            throw new IllegalArgumentException("Codec registry cannot be null");
         }
+        this.codecs = codecs;
     }
 
     @Override
     public void play(String audioType, String fileName) {
-        if (audioType.equalsIgnoreCase("MP4")) {
-            mp4Player.playMp4(fileName);
-        } else {
-            throw new IllegalArgumentException("Invalid media type: " + audioType);
-        }
+        codecs.get(audioType).play(fileName);
     }
 }
 
 class AudioPlayer implements MediaPlayer {
-    private static final Logger logger = Logger.getLogger(AudioPlayer.class.getName());
-    MediaAdapter mediaAdapter;
+    private final MediaAdapter mediaAdapter;
+
+    public AudioPlayer() {
+        this(CodecRegistry.withDefaults());
+    }
+
+    public AudioPlayer(CodecRegistry codecs) {
+        this.mediaAdapter = new MediaAdapter(codecs);
+    }
 
     @Override
     public void play(String audioType, String fileName) {
-        if (audioType.equalsIgnoreCase("MP3")) {
-            logger.info("Playing MP3 file. Name: " + fileName);
-        } else if (audioType.equalsIgnoreCase("MP4")) {
-            mediaAdapter = new MediaAdapter(audioType);
-            mediaAdapter.play(audioType, fileName);
-        } else {
+        if (audioType == null || fileName == null) {
             throw new IllegalArgumentException("Invalid media type");
         }
+        mediaAdapter.play(audioType, fileName);
+    }
+}
+
+interface MediaCodec {
+    void play(String fileName);
+
+    // Consumes one frame; the buffer is only valid until this call returns.
+    long decodeFrame(ByteBuffer frame);
+}
+
+class Mp3Codec implements MediaCodec {
+    private static final Logger logger = Logger.getLogger(Mp3Codec.class.getName());
+
+    @Override
+    public void play(String fileName) {
+        logger.info("Playing MP3 file. Name: " + fileName);
+    }
+
+    @Override
+    public long decodeFrame(ByteBuffer frame) {
+        long checksum = 0;
+        while (frame.hasRemaining()) {
+            checksum += frame.get();
+        }
+        return checksum;
+    }
+}
+
+class Mp4Codec implements MediaCodec {
+    private final Mp4Player mp4Player = new Mp4Player();
+
+    @Override
+    public void play(String fileName) {
+        mp4Player.playMp4(fileName);
+    }
+
+    @Override
+    public long decodeFrame(ByteBuffer frame) {
+        return mp4Player.decodeMp4Frame(frame);
+    }
+}
+
+class CodecRegistry {
+    private final Map<String, MediaCodec> codecs = new ConcurrentHashMap<>();
+
+    public static CodecRegistry withDefaults() {
+        CodecRegistry registry = new CodecRegistry();
+        registry.register("MP3", new Mp3Codec());
+        registry.register("MP4", new Mp4Codec());
+        return registry;
+    }
+
+    public void register(String format, MediaCodec codec) {
+        if (format == null || format.isEmpty() || codec == null) {
+            throw new IllegalArgumentException("Format and codec must be provided");
+        }
+        codecs.put(format.toUpperCase(Locale.ROOT), codec);
+    }
+
+    public MediaCodec get(String format) {
+        MediaCodec codec = format == null ? null : codecs.get(format.toUpperCase(Locale.ROOT));
+        if (codec == null) {
+            throw new IllegalArgumentException("Invalid media type: " + format);
+        }
+        return codec;
+    }
+}
+
+class FramePool {
+    private final BlockingQueue<ByteBuffer> free;
+    private final int frameSize;
+
+    public FramePool(int frames, int frameSize) {
+        if (frames <= 0 || frameSize <= 0) {
+            throw new IllegalArgumentException("Frame count and size must be positive");
+        }
+        this.free = new ArrayBlockingQueue<>(frames);
+        this.frameSize = frameSize;
+        for (int i = 0; i < frames; i++) {
+            free.add(ByteBuffer.allocateDirect(frameSize));
+        }
+    }
+
+    public int getFrameSize() {
+        return frameSize;
+    }
+
+    public ByteBuffer acquire() throws InterruptedException {
+        ByteBuffer frame = free.take();
+        frame.clear();
+        return frame;
+    }
+
+    // Returns null if no frame became free within the timeout.
+    public ByteBuffer acquire(long timeout, TimeUnit unit) throws InterruptedException {
+        ByteBuffer frame = free.poll(timeout, unit);
+        if (frame != null) {
+            frame.clear();
+        }
+        return frame;
+    }
+
+    public void release(ByteBuffer frame) {
+        free.offer(frame);
+    }
+}
+
+class StreamingMediaPlayer implements MediaPlayer, AutoCloseable {
+    private static final Logger logger = Logger.getLogger(StreamingMediaPlayer.class.getName());
+    private static final ByteBuffer END_OF_STREAM = ByteBuffer.allocate(0);
+    private static final long MAP_WINDOW = 256L * 1024 * 1024;
+    private static final long POLL_MILLIS = 50;
+    private static final AtomicInteger playerIds = new AtomicInteger();
+
+    private final CodecRegistry codecs;
+    private final FramePool pool;
+    private final boolean memoryMapped;
+    private final int queueDepth;
+    private final String threadPrefix = "media-stream-" + playerIds.incrementAndGet() + "-";
+    private final AtomicInteger threadIds = new AtomicInteger();
+    private final ExecutorService workers = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, threadPrefix + threadIds.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public StreamingMediaPlayer(CodecRegistry codecs, FramePool pool, boolean memoryMapped, int queueDepth) {
+        if (codecs == null || pool == null || queueDepth <= 0) {
+            throw new IllegalArgumentException("Codecs, frame pool and a positive queue depth are required");
+        }
+        this.codecs = codecs;
+        this.pool = pool;
+        this.memoryMapped = memoryMapped;
+        this.queueDepth = queueDepth;
+    }
+
+    @Override
+    public void play(String audioType, String fileName) {
+        stream(audioType, fileName).join();
+    }
+
+    // Completes with the number of bytes decoded. The producer and consumer of
+    // each stream run on their own pool threads, so many files stream at once.
+    // Whichever side fails cancels the other and returns every pooled frame,
+    // so one broken stream cannot drain the shared FramePool.
+    public CompletableFuture<Long> stream(String audioType, String fileName) {
+        MediaCodec codec = codecs.get(audioType);
+        Path path = Paths.get(fileName);
+        if (!Files.isReadable(path)) {
+            throw new IllegalArgumentException("Media file is not readable: " + fileName);
+        }
+        logger.info("Streaming " + audioType + " file. Name: " + fileName);
+
+        Stream stream = new Stream();
+        CompletableFuture.runAsync(() -> produce(path, stream), workers);
+        return CompletableFuture.supplyAsync(() -> consume(codec, stream), workers);
+    }
+
+    private void produce(Path path, Stream stream) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (memoryMapped) {
+                produceMapped(channel, stream);
+            } else {
+                producePooled(channel, stream);
+            }
+            stream.offer(END_OF_STREAM);
+        } catch (IOException | RuntimeException e) {
+            stream.fail(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stream.fail(e);
+        }
+    }
+
+    // Frames are slices of a mapped window, so file data is never copied onto the heap.
+    private void produceMapped(FileChannel channel, Stream stream) throws IOException, InterruptedException {
+        long size = channel.size();
+        int frameSize = pool.getFrameSize();
+        for (long offset = 0; offset < size; offset += MAP_WINDOW) {
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                    Math.min(MAP_WINDOW, size - offset));
+            for (int position = 0; position < window.capacity(); position += frameSize) {
+                if (!stream.offer(window.slice(position, Math.min(frameSize, window.capacity() - position)))) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void producePooled(FileChannel channel, Stream stream) throws IOException, InterruptedException {
+        while (true) {
+            ByteBuffer frame = null;
+            while (frame == null) {
+                if (stream.cancelled) {
+                    return;
+                }
+                frame = pool.acquire(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            int read;
+            try {
+                do {
+                    read = channel.read(frame);
+                } while (read > 0 && frame.hasRemaining());
+                frame.flip();
+                if (frame.hasRemaining()) {
+                    if (!stream.offer(frame)) {
+                        return;
+                    }
+                    frame = null;
+                }
+            } finally {
+                if (frame != null) {
+                    pool.release(frame);
+                }
+            }
+            if (read < 0) {
+                return;
+            }
+        }
+    }
+
+    private long consume(MediaCodec codec, Stream stream) {
+        long bytes = 0;
+        try {
+            ByteBuffer frame;
+            while ((frame = stream.frames.take()) != END_OF_STREAM) {
+                try {
+                    bytes += frame.remaining();
+                    codec.decodeFrame(frame);
+                } finally {
+                    recycle(frame);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stream.fail(e);
+        } catch (RuntimeException e) {
+            stream.fail(e);
+        }
+        if (stream.failure != null) {
+            throw new CompletionException(stream.failure);
+        }
+        return bytes;
+    }
+
+    private void recycle(ByteBuffer frame) {
+        if (!memoryMapped && frame != END_OF_STREAM) {
+            pool.release(frame);
+        }
+    }
+
+    private final class Stream {
+        private final BlockingQueue<ByteBuffer> frames = new ArrayBlockingQueue<>(queueDepth);
+        private volatile boolean cancelled;
+        private volatile Throwable failure;
+
+        // Waits for queue space, giving up once the stream is cancelled. A
+        // frame that lands after cancellation is drained again here, because
+        // the failing side may already have emptied the queue.
+        boolean offer(ByteBuffer frame) throws InterruptedException {
+            while (!frames.offer(frame, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (cancelled) {
+                    return false;
+                }
+            }
+            if (cancelled) {
+                drain();
+                return false;
+            }
+            return true;
+        }
+
+        void fail(Throwable error) {
+            if (failure == null) {
+                failure = error;
+            }
+            cancelled = true;
+            drain();
+            // Wakes a consumer still waiting on an empty queue.
+            frames.offer(END_OF_STREAM);
+        }
+
+        private void drain() {
+            ByteBuffer frame;
+            while ((frame = frames.poll()) != null) {
+                recycle(frame);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
     }
 }
 
 public class MediaPlayerDemo {
     public static void main(String[] args) {
-        AudioPlayer audioPlayer = new AudioPlayer();
+        CodecRegistry codecs = CodecRegistry.withDefaults();
+        AudioPlayer audioPlayer = new AudioPlayer(codecs);
         audioPlayer.play("MP3", "song.mp3");
         audioPlayer.play("MP4", "video.mp4");
+
+        if (args.length == 2) {
+            try (StreamingMediaPlayer player = new StreamingMediaPlayer(codecs, new FramePool(64, 64 * 1024), true, 16)) {
+                long start = System.nanoTime();
+                long bytes = player.stream(args[0], args[1]).join();
+                System.out.printf("Streamed %d bytes at %.1f MB/s%n",
+                        bytes, bytes / 1_048_576.0 / ((System.nanoTime() - start) / 1e9));
+            }
+        }
     }
 }
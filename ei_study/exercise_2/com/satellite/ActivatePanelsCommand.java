@@ -7,6 +7,10 @@ public class ActivatePanelsCommand implements Command {
         this.satellite = satellite;
     }
 
+    Satellite getSatellite() {
+        return satellite;
+    }
+
     @Override
     public void execute() {
         satellite.activatePanels();
@@ -0,0 +1,210 @@
+package com.satellite;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class AdmissionController {
+    private static final Logger logger = LoggerSingleton.getInstance();
+
+    private final double commandsPerSecond;
+    private final int burst;
+    private final int maxInFlight;
+    private final long refillNanos;
+    private final Map<Satellite, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong nextSweepNanos = new AtomicLong(System.nanoTime());
+
+    public AdmissionController(double commandsPerSecond, int burst, int maxInFlight) {
+        if (commandsPerSecond <= 0 || burst <= 0 || maxInFlight <= 0) {
+            throw new IllegalArgumentException("Rate, burst and in-flight limit must be positive");
+        }
+        this.commandsPerSecond = commandsPerSecond;
+        this.burst = burst;
+        this.maxInFlight = maxInFlight;
+        this.refillNanos = (long) Math.ceil(burst / commandsPerSecond * 1_000_000_000.0);
+    }
+
+    // Checks the batch in order against the satellite state it would produce,
+    // without executing or throwing, and fills results with one code per
+    // command. Only ADMITTED commands consume rate-limit tokens, and each one
+    // holds an in-flight slot until the caller hands it back with release().
+    public int admit(Satellite satellite, List<? extends Command> batch, AdmissionResult[] results) {
+        if (results.length < batch.size()) {
+            throw new IllegalArgumentException("Results array is smaller than the batch");
+        }
+        evictIdleBuckets();
+        TokenBucket bucket = buckets.computeIfAbsent(satellite, key -> new TokenBucket(commandsPerSecond, burst));
+        boolean panelsActive = satellite.isSolarPanelsActive();
+        int admitted = 0;
+
+        for (int i = 0; i < batch.size(); i++) {
+            Command command = batch.get(i);
+            AdmissionResult result = admitOne(command, satellite, panelsActive, bucket);
+            if (result == AdmissionResult.ADMITTED) {
+                admitted++;
+                if (command instanceof ActivatePanelsCommand) {
+                    panelsActive = true;
+                } else if (command instanceof DeactivatePanelsCommand) {
+                    panelsActive = false;
+                }
+            }
+            results[i] = result;
+        }
+        return admitted;
+    }
+
+    public AdmissionResult[] execute(Satellite satellite, List<? extends Command> batch, CommandInvoker invoker) {
+        AdmissionResult[] results = new AdmissionResult[batch.size()];
+        int admitted = admit(satellite, batch, results);
+        try {
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] != AdmissionResult.ADMITTED) {
+                    continue;
+                }
+                results[i] = invoke(batch.get(i), invoker);
+                release(1);
+                admitted--;
+            }
+        } finally {
+            release(admitted);
+        }
+        return results;
+    }
+
+    // Single-command form of execute() for interactive and scripted callers;
+    // it allocates nothing once the satellite's bucket exists.
+    public AdmissionResult execute(Satellite satellite, Command command, CommandInvoker invoker) {
+        evictIdleBuckets();
+        TokenBucket bucket = buckets.computeIfAbsent(satellite, key -> new TokenBucket(commandsPerSecond, burst));
+        AdmissionResult result = admitOne(command, satellite, satellite.isSolarPanelsActive(), bucket);
+        if (result != AdmissionResult.ADMITTED) {
+            return result;
+        }
+        try {
+            return invoke(command, invoker);
+        } finally {
+            release(1);
+        }
+    }
+
+    public void release(int slots) {
+        inFlight.addAndGet(-slots);
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    // Refused commands never reach the invoker, so they are counted here.
+    private AdmissionResult admitOne(Command command, Satellite satellite, boolean panelsActive, TokenBucket bucket) {
+        AdmissionResult result;
+        if (!targets(command, satellite)) {
+            result = AdmissionResult.INVALID;
+        } else if (command instanceof CollectDataCommand && !panelsActive) {
+            result = AdmissionResult.PANELS_INACTIVE;
+        } else if (!reserveSlot()) {
+            result = AdmissionResult.SHED;
+        } else if (!bucket.tryAcquire()) {
+            release(1);
+            result = AdmissionResult.RATE_LIMITED;
+        } else {
+            return AdmissionResult.ADMITTED;
+        }
+        if (command != null && SatelliteMetrics.enabled()) {
+            SatelliteMetrics.getInstance().recordRejected(CommandType.of(command));
+        }
+        return result;
+    }
+
+    private static AdmissionResult invoke(Command command, CommandInvoker invoker) {
+        invoker.setCommand(command);
+        try {
+            invoker.executeCommand();
+            return AdmissionResult.ADMITTED;
+        } catch (CommandJournalException e) {
+            return AdmissionResult.FAILED;
+        } catch (SatelliteStateException e) {
+            // Admission already checked the panels, so this only happens when
+            // another writer deactivated them between admission and execution.
+            logger.log(Level.WARNING, "Admitted command rejected: {0}", e.getMessage());
+            return AdmissionResult.PANELS_INACTIVE;
+        }
+    }
+
+    // The slot is taken at admission, so concurrent batches cannot both see
+    // the same free capacity.
+    private boolean reserveSlot() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= maxInFlight) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    // A bucket left alone for a full refill period is indistinguishable from a
+    // new one, so it can be dropped and recreated on demand. At most one sweep
+    // runs per period (and at least a second apart). A batch that fetched a
+    // bucket just before it was dropped draws on a full bucket either way.
+    private void evictIdleBuckets() {
+        long now = System.nanoTime();
+        long due = nextSweepNanos.get();
+        if (now - due < 0 || !nextSweepNanos.compareAndSet(due, now + Math.max(refillNanos, 1_000_000_000L))) {
+            return;
+        }
+        buckets.values().removeIf(bucket -> bucket.isIdle(now, refillNanos));
+    }
+
+    private static boolean targets(Command command, Satellite satellite) {
+        if (command instanceof RotateCommand) {
+            RotateCommand rotate = (RotateCommand) command;
+            return rotate.getSatellite() == satellite && rotate.getDirection() != null;
+        }
+        if (command instanceof ActivatePanelsCommand) {
+            return ((ActivatePanelsCommand) command).getSatellite() == satellite;
+        }
+        if (command instanceof DeactivatePanelsCommand) {
+            return ((DeactivatePanelsCommand) command).getSatellite() == satellite;
+        }
+        if (command instanceof CollectDataCommand) {
+            return ((CollectDataCommand) command).getSatellite() == satellite;
+        }
+        // Unknown command types cannot be checked, so they are never admitted.
+        return false;
+    }
+
+    private static final class TokenBucket {
+        private final double tokensPerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+
+        TokenBucket(double tokensPerSecond, int capacity) {
+            this.tokensPerNano = tokensPerSecond / 1_000_000_000.0;
+            this.capacity = capacity;
+            this.tokens = capacity;
+        }
+
+        synchronized boolean isIdle(long now, long refillNanos) {
+            return now - lastRefill >= refillNanos;
+        }
+
+        synchronized boolean tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+            if (tokens < 1.0) {
+                return false;
+            }
+            tokens -= 1.0;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.satellite;
+
+public enum AdmissionResult {
+    ADMITTED, INVALID, PANELS_INACTIVE, RATE_LIMITED, SHED, FAILED
+}
@@ -0,0 +1,272 @@
+package com.satellite;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.SimpleFormatter;
+
+public class AsyncLogHandler extends Handler {
+    private static final int SAMPLE_RATE = 64;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final int BLOCK_SPINS = 100;
+
+    private final int mask;
+    private final AtomicReferenceArray<LogRecord> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong producerCursor = new AtomicLong();
+    private volatile long consumerCursor;
+    // Everything before syncedCursor has been written and forced to disk.
+    private volatile long syncedCursor;
+    private final AtomicLong flushRequest = new AtomicLong();
+
+    private final OverflowPolicy overflowPolicy;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong overflowCount = new AtomicLong();
+
+    private final FileChannel channel;
+    private final long syncIntervalNanos;
+    // Owned by the writer thread; batches are encoded through this buffer
+    // instead of being copied into a String and a byte array first.
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer encoded = ByteBuffer.allocateDirect(64 << 10);
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public AsyncLogHandler(Path file, int capacity, OverflowPolicy overflowPolicy, long syncIntervalMillis)
+            throws IOException {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a positive power of two");
+        }
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.overflowPolicy = overflowPolicy;
+        this.syncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(syncIntervalMillis);
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        setFormatter(new SimpleFormatter());
+
+        this.writer = new Thread(this::drain, "satellite-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (record == null || !running || !isLoggable(record)) {
+            return;
+        }
+        // Caller inference walks the current stack, so it has to happen here
+        // rather than on the writer thread that formats the record.
+        record.getSourceClassName();
+
+        if (tryOffer(record)) {
+            return;
+        }
+        switch (overflowPolicy) {
+            case DROP:
+                dropped.incrementAndGet();
+                return;
+            case SAMPLE:
+                if (overflowCount.getAndIncrement() % SAMPLE_RATE != 0) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                break;
+            default:
+                break;
+        }
+        // BLOCK: spin briefly, then park so a stalled writer does not cost a
+        // core per blocked producer.
+        for (int attempt = 0; !tryOffer(record); attempt++) {
+            if (!running) {
+                dropped.incrementAndGet();
+                return;
+            }
+            if (attempt < BLOCK_SPINS) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    // Bounded multi-producer ring: a slot is free for sequence s when its
+    // sequence equals s, and holds a record for the consumer when it is s + 1.
+    private boolean tryOffer(LogRecord record) {
+        long cursor = producerCursor.get();
+        while (true) {
+            int index = (int) (cursor & mask);
+            long diff = sequences.get(index) - cursor;
+            if (diff == 0) {
+                if (producerCursor.compareAndSet(cursor, cursor + 1)) {
+                    slots.lazySet(index, record);
+                    sequences.set(index, cursor + 1);
+                    return true;
+                }
+                cursor = producerCursor.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                cursor = producerCursor.get();
+            }
+        }
+    }
+
+    private LogRecord poll() {
+        int index = (int) (consumerCursor & mask);
+        if (sequences.get(index) != consumerCursor + 1) {
+            return null;
+        }
+        LogRecord record = slots.get(index);
+        slots.lazySet(index, null);
+        sequences.set(index, consumerCursor + mask + 1);
+        consumerCursor++;
+        return record;
+    }
+
+    private void drain() {
+        StringBuilder batch = new StringBuilder(8192);
+        long lastSync = System.nanoTime();
+        boolean dirty = false;
+        long reportedDrops = 0;
+
+        while (running || producerCursor.get() != consumerCursor) {
+            LogRecord record;
+            int drained = 0;
+            while (drained < mask + 1 && (record = poll()) != null) {
+                try {
+                    batch.append(getFormatter().format(record));
+                } catch (RuntimeException e) {
+                    reportError(null, e, ErrorManager.FORMAT_FAILURE);
+                }
+                drained++;
+            }
+
+            long drops = dropped.get();
+            if (drops != reportedDrops) {
+                batch.append("Async log buffer overflow: ").append(drops - reportedDrops)
+                        .append(" records dropped.").append(System.lineSeparator());
+                reportedDrops = drops;
+            }
+
+            long consumed = consumerCursor;
+            if (batch.length() > 0) {
+                write(batch);
+                dirty = true;
+            }
+            long now = System.nanoTime();
+            if (dirty && (now - lastSync >= syncIntervalNanos || flushRequest.get() > syncedCursor)) {
+                sync();
+                lastSync = now;
+                dirty = false;
+            }
+            if (!dirty) {
+                syncedCursor = consumed;
+            }
+            if (drained == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        if (batch.length() > 0) {
+            write(batch);
+        }
+        sync();
+        syncedCursor = consumerCursor;
+    }
+
+    private void write(StringBuilder batch) {
+        CharBuffer chars = CharBuffer.wrap(batch);
+        encoder.reset();
+        try {
+            while (encoder.encode(chars, encoded, true).isOverflow()) {
+                writeEncoded();
+            }
+            CoderResult result;
+            do {
+                result = encoder.flush(encoded);
+                writeEncoded();
+            } while (result.isOverflow());
+        } catch (IOException e) {
+            encoded.clear();
+            reportError(null, e, ErrorManager.WRITE_FAILURE);
+        }
+        batch.setLength(0);
+    }
+
+    private void writeEncoded() throws IOException {
+        encoded.flip();
+        while (encoded.hasRemaining()) {
+            channel.write(encoded);
+        }
+        encoded.clear();
+    }
+
+    private void sync() {
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            reportError(null, e, ErrorManager.FLUSH_FAILURE);
+        }
+    }
+
+    // Returns once every record published before the call has been written
+    // and forced, asking the writer to sync now rather than at its interval.
+    @Override
+    public void flush() {
+        long target = producerCursor.get();
+        if (syncedCursor >= target) {
+            return;
+        }
+        flushRequest.accumulateAndGet(target, Math::max);
+        LockSupport.unpark(writer);
+        while (syncedCursor < target && writer.isAlive()) {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            reportError(null, e, ErrorManager.CLOSE_FAILURE);
+        }
+    }
+}
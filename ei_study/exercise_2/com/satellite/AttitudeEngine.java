@@ -0,0 +1,191 @@
+package com.satellite;
+
+import java.util.Arrays;
+
+// Continuous attitude for a whole fleet. Each satellite owns a slot in a set
+// of parallel primitive arrays (structure of arrays): the current unit
+// quaternion, the target quaternion, the remaining slew angle and the slew
+// rate. step() advances every slot in one straight-line loop over the arrays
+// with no per-slot branches or calls besides sqrt/min/max, which is the shape
+// HotSpot's superword pass turns into SIMD instructions.
+public class AttitudeEngine {
+    private static final double EPSILON = 1e-12;
+
+    private final double defaultSlewRate;
+    private double[] qw;
+    private double[] qx;
+    private double[] qy;
+    private double[] qz;
+    private double[] tw;
+    private double[] tx;
+    private double[] ty;
+    private double[] tz;
+    private double[] remaining;
+    private double[] slewRate;
+    private int count;
+
+    public AttitudeEngine(int initialCapacity, double defaultSlewRateDegreesPerSecond) {
+        if (initialCapacity <= 0 || defaultSlewRateDegreesPerSecond <= 0) {
+            throw new IllegalArgumentException("Capacity and slew rate must be positive");
+        }
+        this.defaultSlewRate = Math.toRadians(defaultSlewRateDegreesPerSecond);
+        allocate(initialCapacity);
+    }
+
+    public synchronized int add(Direction orientation) {
+        if (orientation == null) {
+            throw new IllegalArgumentException("Orientation cannot be null");
+        }
+        if (count == qw.length) {
+            allocate(count * 2);
+        }
+        int slot = count++;
+        double half = Math.toRadians(headingOf(orientation)) / 2;
+        qw[slot] = tw[slot] = Math.cos(half);
+        qz[slot] = tz[slot] = Math.sin(half);
+        slewRate[slot] = defaultSlewRate;
+        return slot;
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    public synchronized void setSlewRate(int slot, double degreesPerSecond) {
+        checkSlot(slot);
+        if (degreesPerSecond <= 0) {
+            throw new IllegalArgumentException("Slew rate must be positive");
+        }
+        slewRate[slot] = Math.toRadians(degreesPerSecond);
+    }
+
+    // Direction is kept as a planning shorthand: a heading about the z axis,
+    // with NORTH at 0 degrees and EAST at 90.
+    public void slewTo(int slot, Direction direction) {
+        double half = Math.toRadians(headingOf(direction)) / 2;
+        slewTo(slot, Math.cos(half), 0, 0, Math.sin(half));
+    }
+
+    public synchronized void slewTo(int slot, double w, double x, double y, double z) {
+        checkSlot(slot);
+        double norm = Math.sqrt(w * w + x * x + y * y + z * z);
+        if (norm < EPSILON) {
+            throw new IllegalArgumentException("Target attitude must be a non-zero quaternion");
+        }
+        w /= norm;
+        x /= norm;
+        y /= norm;
+        z /= norm;
+        double dot = qw[slot] * w + qx[slot] * x + qy[slot] * y + qz[slot] * z;
+        if (dot < 0) {
+            // q and -q are the same attitude; take the short way round.
+            w = -w;
+            x = -x;
+            y = -y;
+            z = -z;
+            dot = -dot;
+        }
+        tw[slot] = w;
+        tx[slot] = x;
+        ty[slot] = y;
+        tz[slot] = z;
+        remaining[slot] = 2 * Math.acos(Math.min(1.0, dot));
+    }
+
+    // Moves every satellite towards its target by at most rate * dt radians.
+    // Interpolation is normalized-linear, so the path is exact at both ends and
+    // the angular speed varies slightly in between.
+    public synchronized void step(double dtSeconds) {
+        if (dtSeconds < 0) {
+            throw new IllegalArgumentException("Time step cannot be negative");
+        }
+        double[] qw = this.qw;
+        double[] qx = this.qx;
+        double[] qy = this.qy;
+        double[] qz = this.qz;
+        double[] tw = this.tw;
+        double[] tx = this.tx;
+        double[] ty = this.ty;
+        double[] tz = this.tz;
+        double[] remaining = this.remaining;
+        double[] slewRate = this.slewRate;
+        for (int i = 0; i < count; i++) {
+            double angle = slewRate[i] * dtSeconds;
+            double left = remaining[i];
+            double fraction = Math.min(1.0, angle / Math.max(left, EPSILON));
+            double w = qw[i] + fraction * (tw[i] - qw[i]);
+            double x = qx[i] + fraction * (tx[i] - qx[i]);
+            double y = qy[i] + fraction * (ty[i] - qy[i]);
+            double z = qz[i] + fraction * (tz[i] - qz[i]);
+            double inverse = 1.0 / Math.sqrt(w * w + x * x + y * y + z * z);
+            qw[i] = w * inverse;
+            qx[i] = x * inverse;
+            qy[i] = y * inverse;
+            qz[i] = z * inverse;
+            remaining[i] = Math.max(0.0, left - angle);
+        }
+    }
+
+    public synchronized boolean isSlewing(int slot) {
+        checkSlot(slot);
+        return remaining[slot] > 0;
+    }
+
+    public synchronized double getRemainingDegrees(int slot) {
+        checkSlot(slot);
+        return Math.toDegrees(remaining[slot]);
+    }
+
+    // Heading about the z axis in [0, 360).
+    public synchronized double getHeadingDegrees(int slot) {
+        checkSlot(slot);
+        double w = qw[slot];
+        double x = qx[slot];
+        double y = qy[slot];
+        double z = qz[slot];
+        double heading = Math.toDegrees(Math.atan2(2 * (w * z + x * y), 1 - 2 * (y * y + z * z)));
+        return heading < 0 ? heading + 360 : heading;
+    }
+
+    public synchronized void getAttitude(int slot, double[] out) {
+        checkSlot(slot);
+        out[0] = qw[slot];
+        out[1] = qx[slot];
+        out[2] = qy[slot];
+        out[3] = qz[slot];
+    }
+
+    private static double headingOf(Direction direction) {
+        switch (direction) {
+            case NORTH:
+                return 0;
+            case EAST:
+                return 90;
+            case SOUTH:
+                return 180;
+            case WEST:
+                return 270;
+            default:
+                throw new IllegalArgumentException("Unknown direction: " + direction);
+        }
+    }
+
+    private void checkSlot(int slot) {
+        if (slot < 0 || slot >= count) {
+            throw new IllegalArgumentException("Unknown attitude slot: " + slot);
+        }
+    }
+
+    private void allocate(int capacity) {
+        qw = qw == null ? new double[capacity] : Arrays.copyOf(qw, capacity);
+        qx = qx == null ? new double[capacity] : Arrays.copyOf(qx, capacity);
+        qy = qy == null ? new double[capacity] : Arrays.copyOf(qy, capacity);
+        qz = qz == null ? new double[capacity] : Arrays.copyOf(qz, capacity);
+        tw = tw == null ? new double[capacity] : Arrays.copyOf(tw, capacity);
+        tx = tx == null ? new double[capacity] : Arrays.copyOf(tx, capacity);
+        ty = ty == null ? new double[capacity] : Arrays.copyOf(ty, capacity);
+        tz = tz == null ? new double[capacity] : Arrays.copyOf(tz, capacity);
+        remaining = remaining == null ? new double[capacity] : Arrays.copyOf(remaining, capacity);
+        slewRate = slewRate == null ? new double[capacity] : Arrays.copyOf(slewRate, capacity);
+    }
+}
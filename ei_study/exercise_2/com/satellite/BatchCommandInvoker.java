@@ -0,0 +1,177 @@
+package com.satellite;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class BatchCommandInvoker implements AutoCloseable {
+    private static final Logger logger = LoggerSingleton.getInstance();
+
+    private final BlockingQueue<Command> ring;
+    private final ExecutorService executor;
+    private final Map<Satellite, SatelliteJournal> journals;
+    // Used only by the drain thread.
+    private final CommandInvoker invoker = new CommandInvoker();
+    private volatile boolean running = true;
+
+    public BatchCommandInvoker(int capacity) {
+        this(capacity, Collections.emptyList());
+    }
+
+    // Commands run through a CommandInvoker, so they are measured and, for
+    // satellites with a journal, journaled exactly as single commands are.
+    public BatchCommandInvoker(int capacity, Collection<SatelliteJournal> journals) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Ring buffer capacity must be positive");
+        }
+        this.journals = SatelliteJournal.bySatellite(journals);
+        this.ring = new ArrayBlockingQueue<>(capacity);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "satellite-batch-invoker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.execute(this::drain);
+    }
+
+    // Batches are published contiguously so the drain thread can attribute
+    // every command to the marker that closes its batch. The marker is written
+    // even if publishing is interrupted; it then counts only the commands that
+    // made it onto the ring, so the next batch never inherits them.
+    public synchronized CompletableFuture<BatchResult> submitBatch(Queue<Command> commands)
+            throws InterruptedException {
+        if (!running) {
+            throw new IllegalStateException("Batch invoker is closed");
+        }
+        List<Command> batch = new ArrayList<>(commands.size());
+        Command next;
+        while ((next = commands.poll()) != null) {
+            batch.add(next);
+        }
+        List<Command> coalesced = CommandCoalescer.coalesce(batch);
+
+        long start = System.nanoTime();
+        int enqueued = 0;
+        boolean complete = false;
+        BatchEnd end;
+        try {
+            for (Command command : coalesced) {
+                ring.put(command);
+                enqueued++;
+            }
+            complete = true;
+        } finally {
+            end = new BatchEnd(complete ? batch.size() : enqueued, start);
+            putUninterruptibly(end);
+        }
+        return end.result;
+    }
+
+    private void putUninterruptibly(Command command) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                ring.put(command);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        int executed = 0;
+        int failed = 0;
+        long minLatency = Long.MAX_VALUE;
+        long maxLatency = 0;
+        long totalLatency = 0;
+
+        while (running || !ring.isEmpty()) {
+            Command command;
+            try {
+                command = ring.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            if (command instanceof BatchEnd) {
+                BatchEnd end = (BatchEnd) command;
+                end.result.complete(new BatchResult(end.submitted, executed, failed,
+                        System.nanoTime() - end.startNanos,
+                        executed + failed == 0 ? 0 : minLatency, maxLatency, totalLatency));
+                executed = 0;
+                failed = 0;
+                minLatency = Long.MAX_VALUE;
+                maxLatency = 0;
+                totalLatency = 0;
+                continue;
+            }
+
+            long start = System.nanoTime();
+            invoker.setCommand(command);
+            invoker.setJournal(journals.get(CommandType.targetOf(command)));
+            try {
+                invoker.executeCommand();
+                executed++;
+            } catch (SatelliteStateException e) {
+                logger.log(Level.WARNING, e.getMessage());
+                failed++;
+            } catch (RuntimeException e) {
+                logger.log(Level.SEVERE, "Batched command failed unexpectedly.", e);
+                failed++;
+            }
+            long latency = System.nanoTime() - start;
+            minLatency = Math.min(minLatency, latency);
+            maxLatency = Math.max(maxLatency, latency);
+            totalLatency += latency;
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            try {
+                // Wakes the drain thread if it is parked on an empty ring.
+                ring.put(new BatchEnd(0, System.nanoTime()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                executor.shutdownNow();
+                return;
+            }
+        }
+        executor.shutdown();
+    }
+
+    private static final class BatchEnd implements Command {
+        private final int submitted;
+        private final long startNanos;
+        private final CompletableFuture<BatchResult> result = new CompletableFuture<>();
+
+        BatchEnd(int submitted, long startNanos) {
+            this.submitted = submitted;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void execute() {
+        }
+    }
+}
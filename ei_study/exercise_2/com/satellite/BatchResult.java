@@ -0,0 +1,67 @@
+package com.satellite;
+
+public class BatchResult {
+    private final int submitted;
+    private final int executed;
+    private final int failed;
+    private final long elapsedNanos;
+    private final long minLatencyNanos;
+    private final long maxLatencyNanos;
+    private final long totalLatencyNanos;
+
+    BatchResult(int submitted, int executed, int failed, long elapsedNanos,
+                long minLatencyNanos, long maxLatencyNanos, long totalLatencyNanos) {
+        this.submitted = submitted;
+        this.executed = executed;
+        this.failed = failed;
+        this.elapsedNanos = elapsedNanos;
+        this.minLatencyNanos = minLatencyNanos;
+        this.maxLatencyNanos = maxLatencyNanos;
+        this.totalLatencyNanos = totalLatencyNanos;
+    }
+
+    public int getSubmitted() {
+        return submitted;
+    }
+
+    public int getExecuted() {
+        return executed;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public int getCoalesced() {
+        return submitted - executed - failed;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getMinLatencyNanos() {
+        return minLatencyNanos;
+    }
+
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos;
+    }
+
+    public double getAverageLatencyNanos() {
+        int processed = executed + failed;
+        return processed == 0 ? 0.0 : (double) totalLatencyNanos / processed;
+    }
+
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0.0 : (executed + failed) * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Submitted: %d, Executed: %d, Coalesced: %d, Failed: %d\n"
+                        + "Throughput: %.0f commands/sec, Latency (ns): min %d / avg %.0f / max %d",
+                submitted, executed, getCoalesced(), failed,
+                getThroughput(), minLatencyNanos, getAverageLatencyNanos(), maxLatencyNanos);
+    }
+}
@@ -7,6 +7,10 @@ public class CollectDataCommand implements Command {
         this.satellite = satellite;
     }
 
+    Satellite getSatellite() {
+        return satellite;
+    }
+
     @Override
     public void execute() throws SatelliteStateException {
         satellite.collectData();
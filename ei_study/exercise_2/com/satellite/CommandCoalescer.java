@@ -0,0 +1,51 @@
+package com.satellite;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class CommandCoalescer {
+    private CommandCoalescer() {
+    }
+
+    // Only adjacent commands on the same satellite are merged, so no command
+    // is ever reordered across another one that could observe its effect.
+    static List<Command> coalesce(List<Command> commands) {
+        List<Command> result = new ArrayList<>(commands.size());
+        for (Command command : commands) {
+            if (command == null) {
+                continue;
+            }
+            int last = result.size() - 1;
+            if (last >= 0 && supersedes(command, result.get(last))) {
+                result.set(last, command);
+            } else {
+                result.add(command);
+            }
+        }
+        return result;
+    }
+
+    // Only commands that will succeed are merged: a rotate without a direction
+    // is rejected at execution, so it neither replaces an earlier rotate nor is
+    // silently dropped in favour of a later one.
+    private static boolean supersedes(Command next, Command previous) {
+        if (next instanceof RotateCommand && previous instanceof RotateCommand) {
+            RotateCommand nextRotate = (RotateCommand) next;
+            RotateCommand previousRotate = (RotateCommand) previous;
+            return nextRotate.getDirection() != null && previousRotate.getDirection() != null
+                    && nextRotate.getSatellite() == previousRotate.getSatellite();
+        }
+        Satellite nextTarget = panelTarget(next);
+        return nextTarget != null && nextTarget == panelTarget(previous);
+    }
+
+    private static Satellite panelTarget(Command command) {
+        if (command instanceof ActivatePanelsCommand) {
+            return ((ActivatePanelsCommand) command).getSatellite();
+        }
+        if (command instanceof DeactivatePanelsCommand) {
+            return ((DeactivatePanelsCommand) command).getSatellite();
+        }
+        return null;
+    }
+}
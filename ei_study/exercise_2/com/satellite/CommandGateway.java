@@ -0,0 +1,336 @@
+package com.satellite;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class CommandGateway implements AutoCloseable {
+    private static final Logger logger = LoggerSingleton.getInstance();
+    private static final int BUFFER_SIZE = 64 * 1024;
+    static final int MAX_IN_FLIGHT = 4096;
+
+    private static final Function<Satellite, Command> ACTIVATE_PANELS = ActivatePanelsCommand::new;
+    private static final Function<Satellite, Command> DEACTIVATE_PANELS = DeactivatePanelsCommand::new;
+    private static final Function<Satellite, Command> COLLECT_DATA = CollectDataCommand::new;
+    private static final List<Function<Satellite, Command>> ROTATE = rotateFactories();
+
+    private final FleetController fleet;
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final Thread selectorThread;
+    private final Queue<Connection> readyToFlush = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+    private final AtomicLong commandsHandled = new AtomicLong();
+    private volatile boolean running = true;
+
+    public CommandGateway(FleetController fleet, InetSocketAddress address) throws IOException {
+        this.fleet = fleet;
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        this.server.bind(address, 4096);
+        this.server.configureBlocking(false);
+        this.server.register(selector, SelectionKey.OP_ACCEPT);
+        this.selectorThread = new Thread(this::runLoop, "satellite-gateway");
+        this.selectorThread.setDaemon(true);
+        this.selectorThread.start();
+        logger.log(Level.INFO, "Command gateway listening on {0}", server.getLocalAddress());
+    }
+
+    public InetSocketAddress getAddress() throws IOException {
+        return (InetSocketAddress) server.getLocalAddress();
+    }
+
+    public long getCommandsHandled() {
+        return commandsHandled.get();
+    }
+
+    private void runLoop() {
+        while (running) {
+            try {
+                selector.select();
+                wakeupPending.set(false);
+                Connection pending;
+                while ((pending = readyToFlush.poll()) != null) {
+                    pending.flush();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    // A failure on one connection (for example a key cancelled
+                    // concurrently) drops that connection, not the gateway.
+                    try {
+                        if (key.isReadable()) {
+                            connection.read();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            connection.flush();
+                        }
+                    } catch (RuntimeException e) {
+                        logger.log(Level.WARNING, "Closing gateway connection after an unexpected error.", e);
+                        connection.close();
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                if (running) {
+                    logger.log(Level.SEVERE, "Command gateway selector failed.", e);
+                }
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        }
+    }
+
+    private void wakeup() {
+        if (wakeupPending.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            selectorThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+    }
+
+    // Indexed by Direction ordinal.
+    private static List<Function<Satellite, Command>> rotateFactories() {
+        List<Function<Satellite, Command>> factories = new ArrayList<>();
+        for (Direction direction : Direction.values()) {
+            factories.add(satellite -> new RotateCommand(satellite, direction));
+        }
+        return Collections.unmodifiableList(factories);
+    }
+
+    private final class Connection {
+        private final SocketChannel channel;
+        private final ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        // Written by shard threads as commands complete, drained by the selector thread.
+        private final ByteBuffer responses = ByteBuffer.allocate(MAX_IN_FLIGHT * GatewayProtocol.RESPONSE_SIZE);
+        private final AtomicBoolean flushQueued = new AtomicBoolean();
+        private SelectionKey key;
+        private int inFlight;
+        private boolean readPaused;
+        private byte[] lastId = new byte[0];
+        private String lastIdString;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void read() {
+            try {
+                if (channel.read(in) < 0) {
+                    close();
+                    return;
+                }
+            } catch (IOException e) {
+                close();
+                return;
+            }
+            in.flip();
+            decodeFrames();
+            in.compact();
+        }
+
+        // Frames are decoded in place from the read buffer; decoding stops once
+        // MAX_IN_FLIGHT commands await a response and resumes as they drain.
+        private void decodeFrames() {
+            while (in.remaining() >= GatewayProtocol.HEADER_SIZE) {
+                int length = in.getShort(in.position()) & 0xFFFF;
+                if (length < GatewayProtocol.FIXED_BODY_SIZE + 1
+                        || length > GatewayProtocol.FIXED_BODY_SIZE + GatewayProtocol.MAX_ID_LENGTH) {
+                    logger.log(Level.WARNING, "Closing gateway connection after malformed frame.");
+                    close();
+                    return;
+                }
+                if (in.remaining() < GatewayProtocol.HEADER_SIZE + length) {
+                    break;
+                }
+                synchronized (this) {
+                    if (inFlight >= MAX_IN_FLIGHT) {
+                        pauseReading();
+                        return;
+                    }
+                    inFlight++;
+                }
+                in.position(in.position() + GatewayProtocol.HEADER_SIZE);
+                int requestId = in.getInt();
+                byte opcode = in.get();
+                byte argument = in.get();
+                String satelliteId = decodeId(length - GatewayProtocol.FIXED_BODY_SIZE);
+                dispatch(requestId, opcode, argument, satelliteId);
+            }
+        }
+
+        private String decodeId(int idLength) {
+            int start = in.position();
+            boolean same = idLength == lastId.length;
+            for (int i = 0; same && i < idLength; i++) {
+                same = in.get(start + i) == lastId[i];
+            }
+            if (!same) {
+                lastId = new byte[idLength];
+                in.get(lastId);
+                lastIdString = new String(lastId, StandardCharsets.UTF_8);
+            } else {
+                in.position(start + idLength);
+            }
+            return lastIdString;
+        }
+
+        private void dispatch(int requestId, byte opcode, byte argument, String satelliteId) {
+            Function<Satellite, Command> factory;
+            switch (opcode) {
+                case GatewayProtocol.OP_ROTATE:
+                    factory = argument >= 0 && argument < ROTATE.size() ? ROTATE.get(argument) : null;
+                    break;
+                case GatewayProtocol.OP_ACTIVATE_PANELS:
+                    factory = ACTIVATE_PANELS;
+                    break;
+                case GatewayProtocol.OP_DEACTIVATE_PANELS:
+                    factory = DEACTIVATE_PANELS;
+                    break;
+                case GatewayProtocol.OP_COLLECT_DATA:
+                    factory = COLLECT_DATA;
+                    break;
+                default:
+                    factory = null;
+            }
+            if (factory == null) {
+                respond(requestId, GatewayProtocol.STATUS_BAD_REQUEST);
+                return;
+            }
+            if (!fleet.contains(satelliteId)) {
+                respond(requestId, GatewayProtocol.STATUS_UNKNOWN_SATELLITE);
+                return;
+            }
+            CompletableFuture<Void> result = fleet.submit(satelliteId, factory);
+            result.whenComplete((ignored, error) -> respond(requestId, statusOf(error)));
+        }
+
+        private byte statusOf(Throwable error) {
+            if (error == null) {
+                return GatewayProtocol.STATUS_OK;
+            }
+            return error instanceof SatelliteStateException
+                    ? GatewayProtocol.STATUS_REJECTED : GatewayProtocol.STATUS_ERROR;
+        }
+
+        private void respond(int requestId, byte status) {
+            synchronized (this) {
+                responses.putInt(requestId).put(status);
+            }
+            commandsHandled.incrementAndGet();
+            if (flushQueued.compareAndSet(false, true)) {
+                readyToFlush.add(this);
+                wakeup();
+            }
+        }
+
+        void flush() {
+            flushQueued.set(false);
+            boolean resume;
+            synchronized (this) {
+                responses.flip();
+                int count = Math.min(responses.remaining(), out.remaining()) / GatewayProtocol.RESPONSE_SIZE;
+                int bytes = count * GatewayProtocol.RESPONSE_SIZE;
+                int limit = responses.limit();
+                responses.limit(responses.position() + bytes);
+                out.put(responses);
+                responses.limit(limit);
+                responses.compact();
+                inFlight -= count;
+                resume = readPaused && inFlight < MAX_IN_FLIGHT / 2;
+            }
+            out.flip();
+            try {
+                channel.write(out);
+            } catch (IOException e) {
+                close();
+                return;
+            }
+            out.compact();
+            if (!key.isValid()) {
+                return;
+            }
+            boolean more;
+            synchronized (this) {
+                more = responses.position() > 0;
+            }
+            int ops = SelectionKey.OP_READ;
+            if (out.position() > 0 || more) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+            if (resume) {
+                readPaused = false;
+                in.flip();
+                decodeFrames();
+                in.compact();
+            }
+            if (readPaused) {
+                ops &= ~SelectionKey.OP_READ;
+            }
+            if (key.isValid()) {
+                key.interestOps(ops);
+            }
+        }
+
+        private void pauseReading() {
+            readPaused = true;
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+        }
+
+        private void close() {
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.log(Level.FINE, "Failed to close gateway connection.", e);
+            }
+        }
+    }
+}
@@ -1,15 +1,53 @@
 package com.satellite;
 
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
 public class CommandInvoker {
+    private static final Logger logger = LoggerSingleton.getInstance();
+
     private Command command;
+    private SatelliteJournal journal;
 
     public void setCommand(Command command) {
         this.command = command;
     }
 
+    public void setJournal(SatelliteJournal journal) {
+        this.journal = journal;
+    }
+
+    // The command is journaled before it runs, so the satellite never holds
+    // state the journal cannot reproduce; a command that is then rejected
+    // replays as a no-op. A command that cannot be journaled is not run.
     public void executeCommand() throws SatelliteStateException {
         if (command != null) {
+            if (journal != null) {
+                try {
+                    journal.append(command);
+                } catch (IOException e) {
+                    logger.log(Level.SEVERE, "Failed to journal command.", e);
+                    throw new CommandJournalException("Command not executed: it could not be journaled.");
+                }
+            }
+            if (SatelliteMetrics.enabled()) {
+                executeMeasured();
+            } else {
+                command.execute();
+            }
+        }
+    }
+
+    private void executeMeasured() throws SatelliteStateException {
+        CommandType type = CommandType.of(command);
+        long start = System.nanoTime();
+        try {
             command.execute();
+        } catch (SatelliteStateException e) {
+            SatelliteMetrics.getInstance().recordRejected(type, System.nanoTime() - start);
+            throw e;
         }
+        SatelliteMetrics.getInstance().recordExecuted(type, System.nanoTime() - start);
     }
 }
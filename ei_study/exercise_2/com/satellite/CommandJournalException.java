@@ -0,0 +1,9 @@
+package com.satellite;
+
+// Thrown when a command is refused because it could not be journaled, as
+// opposed to being rejected by the satellite's own state rules.
+public class CommandJournalException extends SatelliteStateException {
+    public CommandJournalException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,5 @@
+package com.satellite;
+
+public enum CommandPriority {
+    CRITICAL, HIGH, NORMAL, BULK
+}
@@ -0,0 +1,326 @@
+package com.satellite;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class CommandScheduler implements AutoCloseable {
+    private static final Logger logger = LoggerSingleton.getInstance();
+    private static final CommandPriority[] PRIORITIES = CommandPriority.values();
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    // Commands a worker runs for one satellite before giving other satellites a turn.
+    private static final int QUANTUM = 64;
+
+    private final Worker[] workers;
+    private final Map<Satellite, SatelliteJournal> journals;
+    private final Map<Satellite, SatelliteQueue> satellites = new ConcurrentHashMap<>();
+    private final AtomicInteger[] queueDepth = new AtomicInteger[PRIORITIES.length];
+    private final ConcurrentLatencyHistogram[] waitTimes = new ConcurrentLatencyHistogram[PRIORITIES.length];
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong stolen = new AtomicLong();
+    private volatile boolean running = true;
+
+    public CommandScheduler(int workerCount) {
+        this(workerCount, Collections.emptyList());
+    }
+
+    // Commands for a satellite with a journal are journaled before they run,
+    // as CommandInvoker does for single commands.
+    public CommandScheduler(int workerCount, Collection<SatelliteJournal> journals) {
+        if (workerCount <= 0) {
+            throw new IllegalArgumentException("Worker count must be positive");
+        }
+        this.journals = SatelliteJournal.bySatellite(journals);
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            queueDepth[i] = new AtomicInteger();
+            waitTimes[i] = new ConcurrentLatencyHistogram();
+        }
+        workers = new Worker[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Worker(i);
+        }
+        for (Worker worker : workers) {
+            worker.thread.start();
+        }
+    }
+
+    // A command whose deadline passes while it is queued is dropped and its
+    // future fails with a TimeoutException instead of running late. Built-in
+    // commands must target the satellite they are queued under, or they would
+    // run concurrently with that satellite's own queue.
+    public CompletableFuture<Void> submit(Satellite satellite, Command command, CommandPriority priority,
+                                          long deadlineMillis) {
+        if (satellite == null || command == null || priority == null) {
+            throw new IllegalArgumentException("Satellite, command and priority are required");
+        }
+        if (deadlineMillis < 0) {
+            throw new IllegalArgumentException("Deadline cannot be negative");
+        }
+        Satellite target = CommandType.targetOf(command);
+        if (target != null && target != satellite) {
+            throw new IllegalArgumentException("Command targets a different satellite");
+        }
+        if (!running) {
+            throw new IllegalStateException("Command scheduler is closed");
+        }
+        long now = System.nanoTime();
+        ScheduledCommand scheduled = new ScheduledCommand(command, priority, now,
+                now + TimeUnit.MILLISECONDS.toNanos(deadlineMillis));
+        Worker owner = workers[Math.floorMod(System.identityHashCode(satellite), workers.length)];
+        queueDepth[priority.ordinal()].incrementAndGet();
+        while (true) {
+            SatelliteQueue queue = satellites.computeIfAbsent(satellite, key -> new SatelliteQueue(key, owner));
+            synchronized (queue) {
+                if (queue.retired) {
+                    continue;
+                }
+                // close() drains every queue under its lock after clearing
+                // running, so a command added here is either drained or refused.
+                if (!running) {
+                    queueDepth[priority.ordinal()].decrementAndGet();
+                    scheduled.result.completeExceptionally(new IllegalStateException("Command scheduler is closed"));
+                    return scheduled.result;
+                }
+                queue.pending.get(priority.ordinal()).addLast(scheduled);
+                if (!queue.active && (queue.readyLevel < 0 || priority.ordinal() < queue.readyLevel)) {
+                    queue.readyLevel = priority.ordinal();
+                    owner.ready.get(priority.ordinal()).addLast(queue);
+                }
+            }
+            owner.wake();
+            return scheduled.result;
+        }
+    }
+
+    public int getQueueDepth(CommandPriority priority) {
+        return queueDepth[priority.ordinal()].get();
+    }
+
+    public LatencyHistogram getWaitTimes(CommandPriority priority) {
+        return waitTimes[priority.ordinal()].snapshot();
+    }
+
+    public long getExpiredCount() {
+        return expired.get();
+    }
+
+    public long getStolenCount() {
+        return stolen.get();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker.thread);
+        }
+        for (Worker worker : workers) {
+            try {
+                worker.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        for (SatelliteQueue queue : satellites.values()) {
+            synchronized (queue) {
+                for (ArrayDeque<ScheduledCommand> pending : queue.pending) {
+                    ScheduledCommand scheduled;
+                    while ((scheduled = pending.pollFirst()) != null) {
+                        queueDepth[scheduled.priority.ordinal()].decrementAndGet();
+                        scheduled.result.completeExceptionally(
+                                new IllegalStateException("Command scheduler is closed"));
+                    }
+                }
+            }
+        }
+    }
+
+    // Work is handed out a satellite at a time: whoever claims a satellite's
+    // queue runs its commands in priority order, FIFO within a priority, so
+    // commands for one satellite never overtake each other or run
+    // concurrently. Priorities are strict across the scheduler: a worker
+    // looks for higher-priority satellites in every worker's ready queue,
+    // stealing from the tail of others, before taking lower-priority work of
+    // its own.
+    private SatelliteQueue claimNext(Worker self) {
+        for (int level = 0; level < PRIORITIES.length; level++) {
+            SatelliteQueue queue;
+            while ((queue = self.ready.get(level).pollFirst()) != null) {
+                if (queue.claim()) {
+                    return queue;
+                }
+            }
+            for (int offset = 1; offset < workers.length; offset++) {
+                Worker victim = workers[(self.index + offset) % workers.length];
+                while ((queue = victim.ready.get(level).pollLast()) != null) {
+                    if (queue.claim()) {
+                        stolen.incrementAndGet();
+                        return queue;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private void run(Worker self) {
+        CommandInvoker invoker = new CommandInvoker();
+        while (running) {
+            SatelliteQueue queue = claimNext(self);
+            if (queue == null) {
+                self.idle = true;
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                self.idle = false;
+                continue;
+            }
+            for (int executed = 0; executed < QUANTUM && running; executed++) {
+                ScheduledCommand scheduled = queue.next();
+                if (scheduled == null) {
+                    break;
+                }
+                execute(invoker, scheduled);
+            }
+            release(queue);
+        }
+    }
+
+    private void execute(CommandInvoker invoker, ScheduledCommand scheduled) {
+        int level = scheduled.priority.ordinal();
+        queueDepth[level].decrementAndGet();
+        long now = System.nanoTime();
+        waitTimes[level].record(now - scheduled.enqueuedNanos);
+        if (now - scheduled.deadlineNanos > 0) {
+            expired.incrementAndGet();
+            scheduled.result.completeExceptionally(new TimeoutException("Command deadline expired"));
+            return;
+        }
+        invoker.setCommand(scheduled.command);
+        invoker.setJournal(journals.get(CommandType.targetOf(scheduled.command)));
+        try {
+            invoker.executeCommand();
+            scheduled.result.complete(null);
+        } catch (SatelliteStateException e) {
+            scheduled.result.completeExceptionally(e);
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "Scheduled command failed unexpectedly.", e);
+            scheduled.result.completeExceptionally(e);
+        }
+    }
+
+    // Hands the satellite back: requeued on its owner at its highest pending
+    // priority if work remains, otherwise dropped from the map so idle
+    // satellites do not accumulate.
+    private void release(SatelliteQueue queue) {
+        synchronized (queue) {
+            queue.active = false;
+            int level = queue.highestPendingLevel();
+            if (level >= 0) {
+                queue.readyLevel = level;
+                queue.owner.ready.get(level).addLast(queue);
+            } else {
+                queue.retired = true;
+                satellites.remove(queue.satellite, queue);
+            }
+        }
+        queue.owner.wake();
+    }
+
+    private static List<ArrayDeque<ScheduledCommand>> commandLevels() {
+        List<ArrayDeque<ScheduledCommand>> levels = new ArrayList<>(PRIORITIES.length);
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            levels.add(new ArrayDeque<>());
+        }
+        return levels;
+    }
+
+    private final class Worker {
+        private final int index;
+        private final Thread thread;
+        private final List<ConcurrentLinkedDeque<SatelliteQueue>> ready = new ArrayList<>(PRIORITIES.length);
+        private volatile boolean idle;
+
+        Worker(int index) {
+            this.index = index;
+            for (int i = 0; i < PRIORITIES.length; i++) {
+                ready.add(new ConcurrentLinkedDeque<>());
+            }
+            this.thread = new Thread(() -> CommandScheduler.this.run(this), "satellite-scheduler-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        void wake() {
+            if (idle) {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+
+    // Pending commands of one satellite. It sits in at most one ready queue
+    // at a time (stale duplicates left by a priority bump fail to claim) and
+    // is drained by at most one worker.
+    private static final class SatelliteQueue {
+        private final Satellite satellite;
+        private final Worker owner;
+        private final List<ArrayDeque<ScheduledCommand>> pending = commandLevels();
+        private int readyLevel = -1;
+        private boolean active;
+        private boolean retired;
+
+        SatelliteQueue(Satellite satellite, Worker owner) {
+            this.satellite = satellite;
+            this.owner = owner;
+        }
+
+        synchronized boolean claim() {
+            if (active || readyLevel < 0) {
+                return false;
+            }
+            active = true;
+            readyLevel = -1;
+            return true;
+        }
+
+        synchronized ScheduledCommand next() {
+            int level = highestPendingLevel();
+            return level < 0 ? null : pending.get(level).pollFirst();
+        }
+
+        int highestPendingLevel() {
+            for (int level = 0; level < pending.size(); level++) {
+                if (!pending.get(level).isEmpty()) {
+                    return level;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private static final class ScheduledCommand {
+        private final Command command;
+        private final CommandPriority priority;
+        private final long enqueuedNanos;
+        private final long deadlineNanos;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        ScheduledCommand(Command command, CommandPriority priority, long enqueuedNanos, long deadlineNanos) {
+            this.command = command;
+            this.priority = priority;
+            this.enqueuedNanos = enqueuedNanos;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+}
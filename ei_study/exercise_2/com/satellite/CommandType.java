@@ -0,0 +1,38 @@
+package com.satellite;
+
+public enum CommandType {
+    ROTATE, ACTIVATE_PANELS, DEACTIVATE_PANELS, COLLECT_DATA, OTHER;
+
+    public static CommandType of(Command command) {
+        if (command instanceof RotateCommand) {
+            return ROTATE;
+        }
+        if (command instanceof ActivatePanelsCommand) {
+            return ACTIVATE_PANELS;
+        }
+        if (command instanceof DeactivatePanelsCommand) {
+            return DEACTIVATE_PANELS;
+        }
+        if (command instanceof CollectDataCommand) {
+            return COLLECT_DATA;
+        }
+        return OTHER;
+    }
+
+    // The satellite a built-in command acts on, or null for other commands.
+    static Satellite targetOf(Command command) {
+        if (command instanceof RotateCommand) {
+            return ((RotateCommand) command).getSatellite();
+        }
+        if (command instanceof ActivatePanelsCommand) {
+            return ((ActivatePanelsCommand) command).getSatellite();
+        }
+        if (command instanceof DeactivatePanelsCommand) {
+            return ((DeactivatePanelsCommand) command).getSatellite();
+        }
+        if (command instanceof CollectDataCommand) {
+            return ((CollectDataCommand) command).getSatellite();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,24 @@
+package com.satellite;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class ConcurrentLatencyHistogram {
+    private final AtomicLongArray counts = new AtomicLongArray(LatencyHistogram.BUCKET_COUNT);
+
+    public void record(long value) {
+        counts.getAndIncrement(LatencyHistogram.indexFor(Math.max(0, value)));
+    }
+
+    // Buckets are copied one by one, so a snapshot taken during recording may
+    // miss values recorded while it runs, but never sees torn counts.
+    public LatencyHistogram snapshot() {
+        LatencyHistogram snapshot = new LatencyHistogram();
+        for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+            long count = counts.get(i);
+            if (count != 0) {
+                snapshot.addBucket(i, count);
+            }
+        }
+        return snapshot;
+    }
+}
@@ -7,6 +7,10 @@ public class DeactivatePanelsCommand implements Command {
         this.satellite = satellite;
     }
 
+    Satellite getSatellite() {
+        return satellite;
+    }
+
     @Override
     public void execute() {
         satellite.deactivatePanels();
@@ -0,0 +1,111 @@
+package com.satellite;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.ConsoleHandler;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+
+// Startup-optimized handler: nothing is opened until the first record is
+// published, and even then the real handler is built on a background thread.
+// Records published in the meantime are queued and handed over in order.
+public class DeferredLogHandler extends Handler {
+    public interface HandlerFactory {
+        Handler create() throws IOException;
+    }
+
+    private final HandlerFactory factory;
+    private final ConcurrentLinkedQueue<LogRecord> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile Thread initializer;
+    private volatile Handler delegate;
+    private volatile boolean drained;
+
+    public DeferredLogHandler(HandlerFactory factory) {
+        if (factory == null) {
+            throw new IllegalArgumentException("Handler factory cannot be null");
+        }
+        this.factory = factory;
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (record == null || !isLoggable(record)) {
+            return;
+        }
+        if (drained) {
+            delegate.publish(record);
+            return;
+        }
+        // The record may be formatted on another thread, so the caller is
+        // inferred now, while this thread's stack still shows it.
+        record.getSourceClassName();
+        pending.add(record);
+        if (started.compareAndSet(false, true)) {
+            Thread thread = new Thread(this::initialize, "satellite-log-init");
+            thread.setDaemon(true);
+            initializer = thread;
+            thread.start();
+        } else if (delegate != null) {
+            drain();
+        }
+    }
+
+    @Override
+    public void flush() {
+        Handler target = delegate;
+        if (target != null) {
+            drain();
+            target.flush();
+        }
+    }
+
+    @Override
+    public void close() {
+        Thread thread = initializer;
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        Handler target = delegate;
+        if (target != null) {
+            drain();
+            target.close();
+        }
+    }
+
+    private void initialize() {
+        try {
+            Handler created = factory.create();
+            created.setLevel(getLevel());
+            delegate = created;
+            drain();
+            drained = true;
+            drain();
+        } catch (IOException | RuntimeException e) {
+            reportError("Failed to initialize deferred log handler, falling back to the console",
+                    e, ErrorManager.OPEN_FAILURE);
+            // Same outcome as a failed eager open, where records still reach
+            // the root console handler.
+            Handler fallback = new ConsoleHandler();
+            fallback.setLevel(getLevel());
+            delegate = fallback;
+            drain();
+            drained = true;
+            drain();
+        }
+    }
+
+    private synchronized void drain() {
+        Handler target = delegate;
+        LogRecord record;
+        while ((record = pending.poll()) != null) {
+            target.publish(record);
+        }
+    }
+}
@@ -4,6 +4,18 @@ public enum Direction {
     NORTH, SOUTH, EAST, WEST;
 
     public static Direction fromString(String direction) throws SatelliteStateException {
+        Direction parsed = parse(direction);
+        if (parsed == null) {
+            throw new SatelliteStateException("Invalid direction: " + direction);
+        }
+        return parsed;
+    }
+
+    // Non-throwing variant for validation paths; returns null for unknown input.
+    public static Direction parse(String direction) {
+        if (direction == null) {
+            return null;
+        }
         switch (direction.toLowerCase()) {
             case "north":
                 return NORTH;
@@ -14,7 +26,7 @@ public enum Direction {
             case "west":
                 return WEST;
             default:
-                throw new SatelliteStateException("Invalid direction: " + direction);
+                return null;
         }
     }
 }
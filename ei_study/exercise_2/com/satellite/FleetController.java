@@ -0,0 +1,126 @@
+package com.satellite;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class FleetController implements AutoCloseable {
+    private static final Logger logger = LoggerSingleton.getInstance();
+
+    private final Map<String, Satellite> satellites = new ConcurrentHashMap<>();
+    private final ExecutorService[] shards;
+    // One per shard and only touched on that shard's thread.
+    private final CommandInvoker[] invokers;
+
+    public FleetController() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    // Every satellite is pinned to one single-threaded shard, which makes that
+    // shard the only writer of its state; different shards never share a lock.
+    public FleetController(int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        this.shards = new ExecutorService[shardCount];
+        this.invokers = new CommandInvoker[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            String name = "satellite-fleet-shard-" + i;
+            shards[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+            invokers[i] = new CommandInvoker();
+        }
+    }
+
+    // The satellite itself stays private to its shard; callers reach it only
+    // through submit() and status(). Returns false if the ID was already taken.
+    public boolean register(String satelliteId) {
+        requireId(satelliteId);
+        return satellites.putIfAbsent(satelliteId, new Satellite()) == null;
+    }
+
+    public boolean contains(String satelliteId) {
+        return satellites.containsKey(satelliteId);
+    }
+
+    public int size() {
+        return satellites.size();
+    }
+
+    public CompletableFuture<Void> submit(String satelliteId, Function<Satellite, Command> commandFactory) {
+        Satellite satellite = lookup(satelliteId);
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        int shard = shardIndex(satelliteId);
+        try {
+            shards[shard].execute(() -> {
+                try {
+                    CommandInvoker invoker = invokers[shard];
+                    invoker.setCommand(commandFactory.apply(satellite));
+                    invoker.executeCommand();
+                    result.complete(null);
+                } catch (SatelliteStateException e) {
+                    logger.log(Level.WARNING, "{0}: {1}", new Object[]{satelliteId, e.getMessage()});
+                    result.completeExceptionally(e);
+                } catch (RuntimeException e) {
+                    logger.log(Level.SEVERE, "Command for " + satelliteId + " failed unexpectedly.", e);
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new IllegalStateException("Fleet controller is closed", e));
+        }
+        return result;
+    }
+
+    public CompletableFuture<String> status(String satelliteId) {
+        Satellite satellite = lookup(satelliteId);
+        try {
+            return CompletableFuture.supplyAsync(satellite::toString, shards[shardIndex(satelliteId)]);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Fleet controller is closed", e));
+        }
+    }
+
+    @Override
+    public void close() {
+        for (ExecutorService shard : shards) {
+            shard.shutdown();
+        }
+        try {
+            for (ExecutorService shard : shards) {
+                shard.awaitTermination(10, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Satellite lookup(String satelliteId) {
+        requireId(satelliteId);
+        Satellite satellite = satellites.get(satelliteId);
+        if (satellite == null) {
+            throw new IllegalArgumentException("Unknown satellite: " + satelliteId);
+        }
+        return satellite;
+    }
+
+    private int shardIndex(String satelliteId) {
+        return Math.floorMod(satelliteId.hashCode(), shards.length);
+    }
+
+    private static void requireId(String satelliteId) {
+        if (satelliteId == null || satelliteId.isEmpty()) {
+            throw new IllegalArgumentException("Satellite ID cannot be null or empty");
+        }
+    }
+}
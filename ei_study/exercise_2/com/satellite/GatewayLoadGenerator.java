@@ -0,0 +1,144 @@
+package com.satellite;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Usage: GatewayLoadGenerator <host> <port> <connections> <pipelineDepth> <seconds> <satellites>
+// With host "embedded" a gateway and fleet are started in this JVM on an ephemeral port.
+public class GatewayLoadGenerator {
+    private static final byte[] OPCODES = {
+            GatewayProtocol.OP_ACTIVATE_PANELS, GatewayProtocol.OP_COLLECT_DATA,
+            GatewayProtocol.OP_ROTATE, GatewayProtocol.OP_COLLECT_DATA
+    };
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 6) {
+            System.out.println("Usage: GatewayLoadGenerator <host|embedded> <port> <connections> "
+                    + "<pipelineDepth> <seconds> <satellites>");
+            return;
+        }
+        int connections = Integer.parseInt(args[2]);
+        int depth = Integer.parseInt(args[3]);
+        long durationNanos = Long.parseLong(args[4]) * 1_000_000_000L;
+        int satellites = Integer.parseInt(args[5]);
+        // Each connection writes its whole pipeline before reading, so a deeper
+        // pipeline than the gateway keeps in flight would stall both sides.
+        if (depth <= 0 || depth > CommandGateway.MAX_IN_FLIGHT) {
+            System.out.println("Pipeline depth must be between 1 and " + CommandGateway.MAX_IN_FLIGHT);
+            return;
+        }
+
+        FleetController fleet = null;
+        CommandGateway gateway = null;
+        InetSocketAddress address;
+        if (args[0].equals("embedded")) {
+            LoggerSingleton.setConsoleEchoEnabled(false);
+            fleet = new FleetController();
+            for (int i = 0; i < satellites; i++) {
+                fleet.register("sat-" + i);
+            }
+            gateway = new CommandGateway(fleet, new InetSocketAddress("127.0.0.1", 0));
+            address = gateway.getAddress();
+        } else {
+            address = new InetSocketAddress(args[0], Integer.parseInt(args[1]));
+        }
+
+        int threads = Math.min(connections, Runtime.getRuntime().availableProcessors() * 2);
+        AtomicLong completed = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        List<Thread> workers = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int first = t;
+            Thread worker = new Thread(() -> {
+                try {
+                    drive(address, first, threads, connections, depth, satellites,
+                            start + durationNanos, completed, rejected);
+                } catch (IOException e) {
+                    System.out.println("Load generator connection failed: " + e.getMessage());
+                }
+            }, "gateway-load-" + t);
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("Connections: %d, Pipeline depth: %d%n", connections, depth);
+        System.out.printf("Completed: %d (%d rejected) in %.1f s: %.0f commands/sec%n",
+                completed.get(), rejected.get(), seconds, completed.get() / seconds);
+
+        if (gateway != null) {
+            gateway.close();
+            fleet.close();
+        }
+    }
+
+    // Each worker owns every threads-th connection and keeps depth requests in
+    // flight on each of them, writing a full pipeline before reading it back.
+    // That is safe because depth never exceeds the gateway's in-flight limit,
+    // so the gateway always consumes a full pipeline without pausing reads.
+    private static void drive(InetSocketAddress address, int first, int stride, int connections, int depth,
+                              int satellites, long deadline, AtomicLong completed, AtomicLong rejected)
+            throws IOException {
+        List<SocketChannel> channels = new ArrayList<>();
+        for (int c = first; c < connections; c += stride) {
+            SocketChannel channel = SocketChannel.open(address);
+            channel.socket().setTcpNoDelay(true);
+            channels.add(channel);
+        }
+        byte[][] ids = new byte[satellites][];
+        for (int i = 0; i < satellites; i++) {
+            ids[i] = GatewayProtocol.encodeId("sat-" + i);
+        }
+        ByteBuffer requests = ByteBuffer.allocateDirect(depth * (GatewayProtocol.HEADER_SIZE
+                + GatewayProtocol.FIXED_BODY_SIZE + GatewayProtocol.MAX_ID_LENGTH));
+        ByteBuffer responses = ByteBuffer.allocateDirect(depth * GatewayProtocol.RESPONSE_SIZE);
+        int requestId = 0;
+
+        try {
+            while (System.nanoTime() < deadline) {
+                for (SocketChannel channel : channels) {
+                    requests.clear();
+                    for (int i = 0; i < depth; i++) {
+                        byte opcode = OPCODES[requestId & (OPCODES.length - 1)];
+                        byte argument = (byte) (requestId % Direction.values().length);
+                        GatewayProtocol.writeRequest(requests, requestId, opcode, argument,
+                                ids[Math.floorMod(requestId * 31 + first, satellites)]);
+                        requestId++;
+                    }
+                    requests.flip();
+                    while (requests.hasRemaining()) {
+                        channel.write(requests);
+                    }
+                }
+                for (SocketChannel channel : channels) {
+                    responses.clear();
+                    while (responses.hasRemaining()) {
+                        if (channel.read(responses) < 0) {
+                            throw new IOException("Gateway closed the connection");
+                        }
+                    }
+                    responses.flip();
+                    while (responses.hasRemaining()) {
+                        responses.getInt();
+                        if (responses.get() != GatewayProtocol.STATUS_OK) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    completed.addAndGet(depth);
+                }
+            }
+        } finally {
+            for (SocketChannel channel : channels) {
+                channel.close();
+            }
+        }
+    }
+}
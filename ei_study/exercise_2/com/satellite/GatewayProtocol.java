@@ -0,0 +1,44 @@
+package com.satellite;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Request frame:  u16 length | u32 requestId | u8 opcode | u8 argument | satellite ID (UTF-8)
+// Response frame: u32 requestId | u8 status
+// The length covers everything after itself. Opcodes are shared with the journal.
+public final class GatewayProtocol {
+    public static final int HEADER_SIZE = 2;
+    public static final int FIXED_BODY_SIZE = 4 + 1 + 1;
+    public static final int MAX_ID_LENGTH = 255;
+    public static final int RESPONSE_SIZE = 5;
+
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_REJECTED = 1;
+    public static final byte STATUS_BAD_REQUEST = 2;
+    public static final byte STATUS_UNKNOWN_SATELLITE = 3;
+    public static final byte STATUS_ERROR = 4;
+
+    public static final byte OP_ROTATE = SatelliteJournal.OP_ROTATE;
+    public static final byte OP_ACTIVATE_PANELS = SatelliteJournal.OP_ACTIVATE_PANELS;
+    public static final byte OP_DEACTIVATE_PANELS = SatelliteJournal.OP_DEACTIVATE_PANELS;
+    public static final byte OP_COLLECT_DATA = SatelliteJournal.OP_COLLECT_DATA;
+
+    private GatewayProtocol() {
+    }
+
+    public static byte[] encodeId(String satelliteId) {
+        byte[] id = satelliteId.getBytes(StandardCharsets.UTF_8);
+        if (id.length == 0 || id.length > MAX_ID_LENGTH) {
+            throw new IllegalArgumentException("Satellite ID must be 1 to " + MAX_ID_LENGTH + " bytes");
+        }
+        return id;
+    }
+
+    public static void writeRequest(ByteBuffer out, int requestId, byte opcode, byte argument, byte[] satelliteId) {
+        out.putShort((short) (FIXED_BODY_SIZE + satelliteId.length))
+                .putInt(requestId)
+                .put(opcode)
+                .put(argument)
+                .put(satelliteId);
+    }
+}
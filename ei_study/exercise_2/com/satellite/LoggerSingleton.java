@@ -1,10 +1,18 @@
 package com.satellite;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.logging.*;
 
 public class LoggerSingleton {
+    private static final String LOG_FILE = "logs/satellite.log";
+
     private static Logger logger = null;
+    private static final boolean FAST_STARTUP = Boolean.getBoolean("satellite.fastStartup");
+
+    private static volatile boolean consoleEcho =
+            Boolean.parseBoolean(System.getProperty("satellite.console", "true"));
 
     private LoggerSingleton() {
     }
@@ -15,9 +23,15 @@ public class LoggerSingleton {
                 if (logger == null) {
                     logger = Logger.getLogger(LoggerSingleton.class.getName());
                     try {
-                        Handler fileHandler = new FileHandler("logs/satellite.log", true);
-                        fileHandler.setFormatter(new SimpleFormatter());
-                        logger.addHandler(fileHandler);
+                        // In fast-startup mode no log file is opened until the first record arrives.
+                        Handler handler = FAST_STARTUP
+                                ? new DeferredLogHandler(LoggerSingleton::createHandler)
+                                : createHandler();
+                        logger.addHandler(handler);
+                        // The root console handler would put synchronous I/O back on the caller's thread.
+                        if (handler instanceof AsyncLogHandler || handler instanceof DeferredLogHandler) {
+                            logger.setUseParentHandlers(false);
+                        }
                     } catch (IOException e) {
                         logger.log(Level.SEVERE, "Failed to initialize logger handler.", e);
                     }
@@ -27,4 +41,29 @@ public class LoggerSingleton {
         }
         return logger;
     }
+
+    public static boolean isConsoleEchoEnabled() {
+        return consoleEcho;
+    }
+
+    public static void setConsoleEchoEnabled(boolean enabled) {
+        consoleEcho = enabled;
+    }
+
+    private static Handler createHandler() throws IOException {
+        String structuredDirectory = System.getProperty("satellite.log.structured");
+        if (structuredDirectory != null) {
+            return new StructuredLogHandler(Paths.get(structuredDirectory), 64 << 20, 256);
+        }
+        if (Boolean.getBoolean("satellite.log.async")) {
+            return new AsyncLogHandler(Paths.get(LOG_FILE),
+                    Integer.getInteger("satellite.log.bufferSize", 8192),
+                    OverflowPolicy.fromString(System.getProperty("satellite.log.overflow")),
+                    Long.getLong("satellite.log.syncMillis", 100L));
+        }
+        Files.createDirectories(Paths.get(LOG_FILE).getParent());
+        Handler fileHandler = new FileHandler(LOG_FILE, true);
+        fileHandler.setFormatter(new SimpleFormatter());
+        return fileHandler;
+    }
 }
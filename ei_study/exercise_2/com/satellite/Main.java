@@ -1,5 +1,12 @@
 package com.satellite;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Scanner;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -8,9 +15,34 @@ public class Main {
     private static final Logger logger = LoggerSingleton.getInstance();
     private static Satellite satellite = new Satellite();
     private static CommandInvoker invoker = new CommandInvoker();
+    private static AdmissionController admission = createAdmissionController();
+    private static SatelliteJournal journal;
 
     public static void main(String[] args) {
         logger.log(Level.INFO, "Satellite Command System Started.");
+        if (SatelliteMetrics.enabled()) {
+            SatelliteMetrics.getInstance().registerMBean();
+            SatelliteMetrics.getInstance().startPeriodicDump(Long.getLong("satellite.metrics.dumpSeconds", 60L));
+        }
+
+        if (args.length == 3 && args[0].equals("--gateway")) {
+            // The journal replays onto Main's single satellite, which the fleet never uses.
+            if (System.getProperty("satellite.journal") != null) {
+                System.out.println("The command journal is not supported with --gateway.");
+                return;
+            }
+            runGateway(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+            logger.log(Level.INFO, "Satellite Command System Ended.");
+            return;
+        }
+        openJournal();
+        openTelemetry();
+        if (args.length == 2 && args[0].equals("--script")) {
+            runScript(args[1]);
+            closeJournal();
+            logger.log(Level.INFO, "Satellite Command System Ended.");
+            return;
+        }
 
         Scanner scanner = new Scanner(System.in);
         boolean exitProgram = false;
@@ -35,20 +67,16 @@ public class Main {
                             break;
                         }
                         Direction direction = Direction.fromString(commandParts[1]);
-                        invoker.setCommand(new RotateCommand(satellite, direction));
-                        invoker.executeCommand();
+                        submit(new RotateCommand(satellite, direction));
                         break;
                     case "activatepanels":
-                        invoker.setCommand(new ActivatePanelsCommand(satellite));
-                        invoker.executeCommand();
+                        submit(new ActivatePanelsCommand(satellite));
                         break;
                     case "deactivatepanels":
-                        invoker.setCommand(new DeactivatePanelsCommand(satellite));
-                        invoker.executeCommand();
+                        submit(new DeactivatePanelsCommand(satellite));
                         break;
                     case "collectdata":
-                        invoker.setCommand(new CollectDataCommand(satellite));
-                        invoker.executeCommand();
+                        submit(new CollectDataCommand(satellite));
                         break;
                     case "status":
                         System.out.println(satellite);
@@ -66,9 +94,109 @@ public class Main {
         }
 
         scanner.close();
+        closeJournal();
         logger.log(Level.INFO, "Satellite Command System Ended.");
     }
 
+    private static void submit(Command command) {
+        switch (admission.execute(satellite, command, invoker)) {
+            case ADMITTED:
+                break;
+            case PANELS_INACTIVE:
+                System.out.println("Cannot collect data. Solar panels are inactive.");
+                break;
+            case RATE_LIMITED:
+                System.out.println("Command rejected: rate limit exceeded.");
+                break;
+            case SHED:
+                System.out.println("Command rejected: too many commands in flight.");
+                break;
+            case FAILED:
+                System.out.println("Command not executed: it could not be journaled.");
+                break;
+            default:
+                System.out.println("Command rejected: invalid command.");
+        }
+    }
+
+    private static void runScript(String source) {
+        LoggerSingleton.setConsoleEchoEnabled(false);
+        ScriptRunner runner = new ScriptRunner(satellite, invoker, admission);
+        try (InputStream in = source.equals("-")
+                ? new BufferedInputStream(System.in)
+                : Files.newInputStream(Paths.get(source))) {
+            System.out.println(runner.run(in));
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to read command script.", e);
+            System.out.println("Failed to read command script: " + e.getMessage());
+        }
+    }
+
+    // Serves satellites sat-0 .. sat-(count - 1) until stdin is closed or reads "exit".
+    private static void runGateway(int port, int satelliteCount) {
+        LoggerSingleton.setConsoleEchoEnabled(false);
+        try (FleetController fleet = new FleetController()) {
+            for (int i = 0; i < satelliteCount; i++) {
+                fleet.register("sat-" + i);
+            }
+            try (CommandGateway gateway = new CommandGateway(fleet,
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), port))) {
+                System.out.println("Command gateway listening on " + gateway.getAddress());
+                Scanner scanner = new Scanner(System.in);
+                while (scanner.hasNextLine() && !scanner.nextLine().trim().equalsIgnoreCase("exit")) {
+                    System.out.println("Commands handled: " + gateway.getCommandsHandled());
+                }
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Command gateway failed.", e);
+            System.out.println("Command gateway failed: " + e.getMessage());
+        }
+    }
+
+    // Limits default to effectively unbounded, so only the state rules apply
+    // unless satellite.admission.* is set.
+    private static AdmissionController createAdmissionController() {
+        double rate = Double.parseDouble(System.getProperty("satellite.admission.rate",
+                String.valueOf(Double.MAX_VALUE)));
+        int burst = Integer.getInteger("satellite.admission.burst", Integer.MAX_VALUE);
+        int maxInFlight = Integer.getInteger("satellite.admission.maxInFlight", Integer.MAX_VALUE);
+        return new AdmissionController(rate, burst, maxInFlight);
+    }
+
+    // Attached after journal recovery so replayed commands do not show up as
+    // samples stamped with the current time.
+    private static void openTelemetry() {
+        if (!Boolean.getBoolean("satellite.telemetry")) {
+            return;
+        }
+        satellite.setTelemetryStore(new TelemetryStore(TelemetryStore.DEFAULT_CHUNK_SIZE,
+                Integer.getInteger("satellite.telemetry.maxChunks", TelemetryStore.DEFAULT_MAX_SEALED_CHUNKS)));
+    }
+
+    private static void openJournal() {
+        String journalDirectory = System.getProperty("satellite.journal");
+        if (journalDirectory == null) {
+            return;
+        }
+        try {
+            journal = SatelliteJournal.open(Paths.get(journalDirectory), satellite);
+            invoker.setJournal(journal);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to open command journal.", e);
+        }
+    }
+
+    private static void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to close command journal.", e);
+        }
+    }
+
     private static void showMenu() {
         System.out.println("\n=== Satellite Command System ===");
         System.out.println("Enter a command:");
@@ -0,0 +1,160 @@
+package com.satellite;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class MissionSimulator {
+    private static final int RUNS_PER_TASK = 64;
+
+    // Satellite state packed into an int: the low bits hold the orientation
+    // ordinal and the bit above them whether the panels are active.
+    private static final int DIRECTIONS = Direction.values().length;
+    private static final int ORIENTATION_BITS = 32 - Integer.numberOfLeadingZeros(DIRECTIONS - 1);
+    private static final int ORIENTATION_MASK = (1 << ORIENTATION_BITS) - 1;
+    private static final int PANELS_BIT = 1 << ORIENTATION_BITS;
+
+    private static final int TOTAL_DATA = 0;
+    private static final int REJECTED = 1;
+    private static final int ROTATIONS = 2;
+    private static final int ACTIVATIONS = 3;
+    private static final int DEACTIVATIONS = 4;
+    private static final int COLLECTIONS = 5;
+    private static final int MIN_RUN_DATA = 6;
+    private static final int MAX_RUN_DATA = 7;
+    private static final int PANELS_ON_AT_END = 8;
+    private static final int ORIENTATION_AT_END = 9;
+    private static final int SLOTS = ORIENTATION_AT_END + DIRECTIONS;
+
+    private final int[] cumulativeWeights = new int[4];
+    private final ForkJoinPool pool;
+
+    // Weights give the relative frequency of rotate, activatePanels,
+    // deactivatePanels and collectData in generated command sequences.
+    public MissionSimulator(int rotateWeight, int activateWeight, int deactivateWeight, int collectWeight,
+                            ForkJoinPool pool) {
+        int[] weights = {rotateWeight, activateWeight, deactivateWeight, collectWeight};
+        int total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] < 0) {
+                throw new IllegalArgumentException("Command weights cannot be negative");
+            }
+            total += weights[i];
+            cumulativeWeights[i] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("At least one command weight must be positive");
+        }
+        this.pool = pool;
+    }
+
+    public MissionSimulator(int rotateWeight, int activateWeight, int deactivateWeight, int collectWeight) {
+        this(rotateWeight, activateWeight, deactivateWeight, collectWeight, ForkJoinPool.commonPool());
+    }
+
+    // Run i is driven only by (seed, i), so the result is identical however the
+    // runs are split across worker threads.
+    public SimulationResult simulate(long seed, int runs, int stepsPerRun) {
+        if (runs <= 0 || stepsPerRun < 0) {
+            throw new IllegalArgumentException("Runs must be positive and steps cannot be negative");
+        }
+        long start = System.nanoTime();
+        long[] totals = pool.invoke(new SimulationTask(seed, 0, runs, stepsPerRun));
+        long[] endOrientations = new long[DIRECTIONS];
+        System.arraycopy(totals, ORIENTATION_AT_END, endOrientations, 0, endOrientations.length);
+        return new SimulationResult(runs, (long) runs * stepsPerRun, totals[TOTAL_DATA], totals[REJECTED],
+                totals[ROTATIONS], totals[ACTIVATIONS], totals[DEACTIVATIONS], totals[COLLECTIONS],
+                totals[MIN_RUN_DATA], totals[MAX_RUN_DATA], totals[PANELS_ON_AT_END], endOrientations,
+                System.nanoTime() - start);
+    }
+
+    private void runBatch(long seed, int from, int to, int steps, long[] totals) {
+        int rotateLimit = cumulativeWeights[0];
+        int activateLimit = cumulativeWeights[1];
+        int deactivateLimit = cumulativeWeights[2];
+        int totalWeight = cumulativeWeights[3];
+
+        for (int run = from; run < to; run++) {
+            long random = mix(seed + run * 0x9E3779B97F4A7C15L);
+            int state = Direction.NORTH.ordinal();
+            long data = 0;
+
+            for (int step = 0; step < steps; step++) {
+                random += 0x9E3779B97F4A7C15L;
+                long bits = mix(random);
+                int pick = (int) ((bits >>> 33) % totalWeight);
+                if (pick < rotateLimit) {
+                    state = (state & ~ORIENTATION_MASK) | (int) ((bits & Integer.MAX_VALUE) % DIRECTIONS);
+                    totals[ROTATIONS]++;
+                } else if (pick < activateLimit) {
+                    state |= PANELS_BIT;
+                    totals[ACTIVATIONS]++;
+                } else if (pick < deactivateLimit) {
+                    state &= ~PANELS_BIT;
+                    totals[DEACTIVATIONS]++;
+                } else if ((state & PANELS_BIT) != 0) {
+                    data += Satellite.DATA_PER_COLLECTION;
+                    totals[COLLECTIONS]++;
+                } else {
+                    totals[REJECTED]++;
+                }
+            }
+
+            totals[TOTAL_DATA] += data;
+            totals[MIN_RUN_DATA] = Math.min(totals[MIN_RUN_DATA], data);
+            totals[MAX_RUN_DATA] = Math.max(totals[MAX_RUN_DATA], data);
+            if ((state & PANELS_BIT) != 0) {
+                totals[PANELS_ON_AT_END]++;
+            }
+            totals[ORIENTATION_AT_END + (state & ORIENTATION_MASK)]++;
+        }
+    }
+
+    // SplitMix64 finalizer: a cheap, allocation-free generator that can be
+    // positioned at any run without replaying the runs before it.
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private final class SimulationTask extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final long seed;
+        private final int from;
+        private final int to;
+        private final int steps;
+
+        SimulationTask(long seed, int from, int to, int steps) {
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+            this.steps = steps;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= RUNS_PER_TASK) {
+                long[] totals = new long[SLOTS];
+                totals[MIN_RUN_DATA] = Long.MAX_VALUE;
+                runBatch(seed, from, to, steps, totals);
+                return totals;
+            }
+            int middle = (from + to) >>> 1;
+            SimulationTask left = new SimulationTask(seed, from, middle, steps);
+            left.fork();
+            long[] right = new SimulationTask(seed, middle, to, steps).compute();
+            long[] combined = left.join();
+            for (int i = 0; i < SLOTS; i++) {
+                if (i == MIN_RUN_DATA) {
+                    combined[i] = Math.min(combined[i], right[i]);
+                } else if (i == MAX_RUN_DATA) {
+                    combined[i] = Math.max(combined[i], right[i]);
+                } else {
+                    combined[i] += right[i];
+                }
+            }
+            return combined;
+        }
+    }
+}
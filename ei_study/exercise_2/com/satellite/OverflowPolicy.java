@@ -0,0 +1,20 @@
+package com.satellite;
+
+public enum OverflowPolicy {
+    BLOCK, DROP, SAMPLE;
+
+    public static OverflowPolicy fromString(String policy) {
+        if (policy == null) {
+            return BLOCK;
+        }
+        switch (policy.toLowerCase()) {
+            case "drop":
+                return DROP;
+            case "sample":
+                return SAMPLE;
+            case "block":
+            default:
+                return BLOCK;
+        }
+    }
+}
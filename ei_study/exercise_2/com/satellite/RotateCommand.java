@@ -9,6 +9,14 @@ public class RotateCommand implements Command {
         this.direction = direction;
     }
 
+    Satellite getSatellite() {
+        return satellite;
+    }
+
+    Direction getDirection() {
+        return direction;
+    }
+
     @Override
     public void execute() throws SatelliteStateException {
         satellite.rotate(direction);
@@ -1,54 +1,227 @@
 package com.satellite;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class Satellite {
     private static final Logger logger = LoggerSingleton.getInstance();
+    static final int DATA_PER_COLLECTION = 10;
 
-    private Direction orientation;
-    private boolean solarPanelsActive;
-    private int dataCollected;
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int ORIENTATION_BITS = 32 - Integer.numberOfLeadingZeros(DIRECTIONS.length - 1);
+    private static final long ORIENTATION_MASK = (1L << ORIENTATION_BITS) - 1;
+    private static final long PANELS_ACTIVE = 1L << ORIENTATION_BITS;
+    private static final int DATA_SHIFT = ORIENTATION_BITS + 1;
+    private static final VarHandle STATE;
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(Satellite.class, "state", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // Orientation, panel state and data counter packed into one word:
+    //   orientation ordinal | panels active bit | data collected
+    // with the orientation field just wide enough for Direction.values().
+    // Writers publish each new word with a compare-and-exchange release, so
+    // concurrent commands never lose each other's updates, and any number of
+    // monitoring threads read a consistent view with one acquire load.
+    @SuppressWarnings("unused")
+    private long state;
+    private TelemetryStore telemetry;
+    // Engine and slot are published together through one volatile reference,
+    // so a command thread never sees the engine without its slot.
+    private volatile AttitudeBinding attitude;
+    private volatile StatusText statusText;
 
     public Satellite() {
-        this.orientation = Direction.NORTH;
-        this.solarPanelsActive = false;
-        this.dataCollected = 0;
+        STATE.setRelease(this, pack(Direction.NORTH, false, 0));
     }
 
     public void rotate(Direction direction) throws SatelliteStateException {
         if (direction == null) {
             throw new SatelliteStateException("Invalid direction provided.");
         }
-        this.orientation = direction;
-        logger.log(Level.INFO, "Satellite rotated to " + direction);
-        System.out.println("Satellite rotated to " + direction);
+        long current = (long) STATE.getAcquire(this);
+        while ((current & ORIENTATION_MASK) != direction.ordinal()) {
+            long witness = (long) STATE.compareAndExchangeRelease(this, current,
+                    (current & ~ORIENTATION_MASK) | direction.ordinal());
+            if (witness == current) {
+                SatelliteMetrics.stateChanged(SatelliteMetrics.StateChange.ORIENTATION);
+                break;
+            }
+            current = witness;
+        }
+        AttitudeBinding binding = attitude;
+        if (binding != null) {
+            binding.engine.slewTo(binding.slot, direction);
+        }
+        logger.log(Level.INFO, "Satellite rotated to {0}", direction);
+        if (LoggerSingleton.isConsoleEchoEnabled()) {
+            System.out.println("Satellite rotated to " + direction);
+        }
     }
 
     public void activatePanels() {
-        this.solarPanelsActive = true;
+        long current = (long) STATE.getAcquire(this);
+        while ((current & PANELS_ACTIVE) == 0) {
+            long witness = (long) STATE.compareAndExchangeRelease(this, current, current | PANELS_ACTIVE);
+            if (witness == current) {
+                SatelliteMetrics.stateChanged(SatelliteMetrics.StateChange.PANELS_ACTIVATED);
+                break;
+            }
+            current = witness;
+        }
         logger.log(Level.INFO, "Solar panels activated.");
-        System.out.println("Solar panels activated.");
+        if (LoggerSingleton.isConsoleEchoEnabled()) {
+            System.out.println("Solar panels activated.");
+        }
     }
 
     public void deactivatePanels() {
-        this.solarPanelsActive = false;
+        long current = (long) STATE.getAcquire(this);
+        while ((current & PANELS_ACTIVE) != 0) {
+            long witness = (long) STATE.compareAndExchangeRelease(this, current, current & ~PANELS_ACTIVE);
+            if (witness == current) {
+                SatelliteMetrics.stateChanged(SatelliteMetrics.StateChange.PANELS_DEACTIVATED);
+                break;
+            }
+            current = witness;
+        }
         logger.log(Level.INFO, "Solar panels deactivated.");
-        System.out.println("Solar panels deactivated.");
+        if (LoggerSingleton.isConsoleEchoEnabled()) {
+            System.out.println("Solar panels deactivated.");
+        }
     }
 
     public void collectData() throws SatelliteStateException {
-        if (!solarPanelsActive) {
-            throw new SatelliteStateException("Cannot collect data. Solar panels are inactive.");
+        long current = (long) STATE.getAcquire(this);
+        long updated;
+        while (true) {
+            if ((current & PANELS_ACTIVE) == 0) {
+                throw new SatelliteStateException("Cannot collect data. Solar panels are inactive.");
+            }
+            updated = current + ((long) DATA_PER_COLLECTION << DATA_SHIFT);
+            long witness = (long) STATE.compareAndExchangeRelease(this, current, updated);
+            if (witness == current) {
+                break;
+            }
+            current = witness;
+        }
+        // Recorded once the counter has moved, so a retry never duplicates a
+        // sample; appendClamped accepts any timestamp and cannot fail here.
+        if (telemetry != null) {
+            telemetry.appendClamped(System.currentTimeMillis(), DATA_PER_COLLECTION);
+        }
+        long dataCollected = updated >>> DATA_SHIFT;
+        SatelliteMetrics.stateChanged(SatelliteMetrics.StateChange.DATA_COLLECTED);
+        logger.log(Level.INFO, "Data collected. Total data: {0,number,#} units.", dataCollected);
+        if (LoggerSingleton.isConsoleEchoEnabled()) {
+            System.out.println("Data collected. Total data: " + dataCollected + " units.");
+        }
+    }
+
+    public Direction getOrientation() {
+        return DIRECTIONS[(int) ((long) STATE.getAcquire(this) & ORIENTATION_MASK)];
+    }
+
+    public boolean isSolarPanelsActive() {
+        return ((long) STATE.getAcquire(this) & PANELS_ACTIVE) != 0;
+    }
+
+    public long getDataCollected() {
+        return (long) STATE.getAcquire(this) >>> DATA_SHIFT;
+    }
+
+    // Consistent view of all three fields from a single read of the state word.
+    public SatelliteStatus getStatus() {
+        long current = (long) STATE.getAcquire(this);
+        return new SatelliteStatus(DIRECTIONS[(int) (current & ORIENTATION_MASK)],
+                (current & PANELS_ACTIVE) != 0, current >>> DATA_SHIFT);
+    }
+
+    public TelemetryStore getTelemetryStore() {
+        return telemetry;
+    }
+
+    public void setTelemetryStore(TelemetryStore telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    // Registers the satellite with a fleet attitude engine. From then on the
+    // discrete orientation is the commanded heading, and rotate() sets a slew
+    // target that the engine propagates tick by tick.
+    public synchronized void attachAttitudeEngine(AttitudeEngine engine) {
+        if (engine == null) {
+            throw new IllegalArgumentException("Attitude engine cannot be null");
+        }
+        if (attitude != null) {
+            throw new IllegalStateException("Satellite already has an attitude engine");
         }
-        this.dataCollected += 10;
-        logger.log(Level.INFO, "Data collected. Total data: " + dataCollected + " units.");
-        System.out.println("Data collected. Total data: " + dataCollected + " units.");
+        attitude = new AttitudeBinding(engine, engine.add(getOrientation()));
+    }
+
+    public AttitudeEngine getAttitudeEngine() {
+        AttitudeBinding binding = attitude;
+        return binding == null ? null : binding.engine;
+    }
+
+    public int getAttitudeSlot() {
+        AttitudeBinding binding = attitude;
+        return binding == null ? -1 : binding.slot;
+    }
+
+    void restore(Direction orientation, boolean solarPanelsActive, long dataCollected) {
+        STATE.setRelease(this, pack(orientation, solarPanelsActive, dataCollected));
+    }
+
+    public void writeStatus(ByteBuffer out) {
+        long current = (long) STATE.getAcquire(this);
+        SatelliteStatus.write(out, DIRECTIONS[(int) (current & ORIENTATION_MASK)],
+                (current & PANELS_ACTIVE) != 0, current >>> DATA_SHIFT);
     }
 
+    // Rendered on first use and cached until a command actually changes state.
     @Override
     public String toString() {
-        return String.format("Orientation: %s\nSolar Panels: %s\nData Collected: %d units",
-                orientation, solarPanelsActive ? "Active" : "Inactive", dataCollected);
+        long current = (long) STATE.getAcquire(this);
+        StatusText cached = statusText;
+        if (cached == null || cached.state != current) {
+            cached = new StatusText(current, String.format(
+                    "Orientation: %s\nSolar Panels: %s\nData Collected: %d units",
+                    DIRECTIONS[(int) (current & ORIENTATION_MASK)],
+                    (current & PANELS_ACTIVE) != 0 ? "Active" : "Inactive", current >>> DATA_SHIFT));
+            statusText = cached;
+        }
+        return cached.text;
+    }
+
+    private static long pack(Direction orientation, boolean solarPanelsActive, long dataCollected) {
+        return (dataCollected << DATA_SHIFT) | (solarPanelsActive ? PANELS_ACTIVE : 0) | orientation.ordinal();
+    }
+
+    private static final class AttitudeBinding {
+        private final AttitudeEngine engine;
+        private final int slot;
+
+        AttitudeBinding(AttitudeEngine engine, int slot) {
+            this.engine = engine;
+            this.slot = slot;
+        }
+    }
+
+    private static final class StatusText {
+        private final long state;
+        private final String text;
+
+        StatusText(long state, String text) {
+            this.state = state;
+            this.text = text;
+        }
     }
 }
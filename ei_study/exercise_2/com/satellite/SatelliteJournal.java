@@ -0,0 +1,273 @@
+package com.satellite;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class SatelliteJournal implements Closeable {
+    private static final Logger logger = LoggerSingleton.getInstance();
+
+    private static final int SNAPSHOT_MAGIC = 0x53415453;
+    // A snapshot always starts a fresh generation, so it carries no replay
+    // offset: recovery replays that generation's journal from the start.
+    private static final int SNAPSHOT_VERSION = 3;
+    private static final int SNAPSHOT_SIZE = 4 + 4 + 8 + 1 + 1 + 8;
+    private static final long INITIAL_MAPPING = 1 << 20;
+
+    // Each record is two bytes: an opcode and its argument. The mapped file is
+    // zero-filled past the tail, so opcode 0 marks the end of the journal.
+    static final byte OP_END = 0;
+    static final byte OP_ROTATE = 1;
+    static final byte OP_ACTIVATE_PANELS = 2;
+    static final byte OP_DEACTIVATE_PANELS = 3;
+    static final byte OP_COLLECT_DATA = 4;
+    private static final int RECORD_SIZE = 2;
+
+    private final Path directory;
+    private final Satellite satellite;
+    private final int groupCommitSize;
+    private final int snapshotInterval;
+
+    private long generation;
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+    private int uncommitted;
+    private int sinceSnapshot;
+
+    private SatelliteJournal(Path directory, Satellite satellite, int groupCommitSize, int snapshotInterval) {
+        this.directory = directory;
+        this.satellite = satellite;
+        this.groupCommitSize = groupCommitSize;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    public static SatelliteJournal open(Path directory, Satellite satellite) throws IOException {
+        return open(directory, satellite, 256, 100_000);
+    }
+
+    // Restores the satellite from the latest snapshot plus the journal tail,
+    // then leaves the journal positioned for appending.
+    public static SatelliteJournal open(Path directory, Satellite satellite,
+                                        int groupCommitSize, int snapshotInterval) throws IOException {
+        if (groupCommitSize <= 0 || snapshotInterval <= 0) {
+            throw new IllegalArgumentException("Group commit size and snapshot interval must be positive");
+        }
+        Files.createDirectories(directory);
+        SatelliteJournal journal = new SatelliteJournal(directory, satellite, groupCommitSize, snapshotInterval);
+        long start = System.nanoTime();
+        journal.loadSnapshot();
+        journal.openGeneration(journal.generation);
+        int replayed = journal.replay();
+        logger.log(Level.INFO, "Recovered satellite state: {0,number,#} journal records replayed in {1,number,#} ms.",
+                new Object[]{replayed, (System.nanoTime() - start) / 1_000_000});
+        return journal;
+    }
+
+    // Invokers that run commands for many satellites look up each command's
+    // journal here; satellites without one are not journaled.
+    static Map<Satellite, SatelliteJournal> bySatellite(Collection<SatelliteJournal> journals) {
+        Map<Satellite, SatelliteJournal> map = new HashMap<>();
+        for (SatelliteJournal journal : journals) {
+            if (map.put(journal.satellite, journal) != null) {
+                throw new IllegalArgumentException("More than one journal for the same satellite");
+            }
+        }
+        return map;
+    }
+
+    // Called before the command executes. Records are replayed with the same
+    // rules the satellite applies, so a command it goes on to reject replays
+    // as a no-op; a rotate without a direction cannot change state and is not
+    // recorded at all.
+    public synchronized void append(Command command) throws IOException {
+        // Replay applies every record to this journal's satellite.
+        if (CommandType.targetOf(command) != satellite) {
+            throw new IllegalArgumentException("Command does not target this journal's satellite");
+        }
+        byte opcode;
+        byte argument = 0;
+        if (command instanceof RotateCommand) {
+            Direction direction = ((RotateCommand) command).getDirection();
+            if (direction == null) {
+                return;
+            }
+            opcode = OP_ROTATE;
+            argument = (byte) direction.ordinal();
+        } else if (command instanceof ActivatePanelsCommand) {
+            opcode = OP_ACTIVATE_PANELS;
+        } else if (command instanceof DeactivatePanelsCommand) {
+            opcode = OP_DEACTIVATE_PANELS;
+        } else if (command instanceof CollectDataCommand) {
+            opcode = OP_COLLECT_DATA;
+        } else {
+            throw new IllegalArgumentException("Unsupported command type: " + command.getClass().getName());
+        }
+
+        // Snapshot before writing: every earlier record has been applied by
+        // now, while this one has not, so it belongs to the next generation.
+        if (sinceSnapshot >= snapshotInterval) {
+            snapshot();
+        }
+        if (mapped.remaining() < RECORD_SIZE) {
+            remap(mapped.capacity() * 2L);
+        }
+        mapped.put(opcode).put(argument);
+        sinceSnapshot++;
+
+        if (++uncommitted >= groupCommitSize) {
+            sync();
+        }
+    }
+
+    public synchronized void sync() {
+        if (uncommitted > 0) {
+            mapped.force();
+            uncommitted = 0;
+        }
+    }
+
+    // Rolls to a fresh journal generation whose starting state is captured by
+    // the snapshot, so recovery never replays more than one interval.
+    public synchronized void snapshot() throws IOException {
+        sync();
+        long next = generation + 1;
+        FileChannel previous = channel;
+        long previousGeneration = generation;
+
+        writeSnapshot(next);
+        previous.close();
+        mapped = null;
+        openGeneration(next);
+        Files.deleteIfExists(journalFile(previousGeneration));
+        sinceSnapshot = 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            sync();
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void loadSnapshot() throws IOException {
+        Path file = directory.resolve("snapshot.bin");
+        if (!Files.exists(file)) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() < SNAPSHOT_SIZE || buffer.getInt() != SNAPSHOT_MAGIC) {
+            throw new IOException("Corrupt satellite snapshot: " + file);
+        }
+        int version = buffer.getInt();
+        if (version != SNAPSHOT_VERSION) {
+            throw new IOException("Unsupported satellite snapshot version: " + version);
+        }
+        generation = buffer.getLong();
+        int ordinal = buffer.get();
+        if (ordinal < 0 || ordinal >= Direction.values().length) {
+            throw new IOException("Corrupt satellite snapshot: " + file);
+        }
+        Direction orientation = Direction.values()[ordinal];
+        boolean panelsActive = buffer.get() != 0;
+        satellite.restore(orientation, panelsActive, buffer.getLong());
+    }
+
+    private void writeSnapshot(long nextGeneration) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SNAPSHOT_SIZE);
+        buffer.putInt(SNAPSHOT_MAGIC)
+                .putInt(SNAPSHOT_VERSION)
+                .putLong(nextGeneration)
+                .put((byte) satellite.getOrientation().ordinal())
+                .put((byte) (satellite.isSolarPanelsActive() ? 1 : 0))
+                .putLong(satellite.getDataCollected());
+        buffer.flip();
+
+        Path temp = directory.resolve("snapshot.tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        Files.move(temp, directory.resolve("snapshot.bin"),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void openGeneration(long newGeneration) throws IOException {
+        generation = newGeneration;
+        channel = FileChannel.open(journalFile(newGeneration), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(INITIAL_MAPPING, channel.size()));
+    }
+
+    private void remap(long size) throws IOException {
+        int position = mapped.position();
+        mapped.force();
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        mapped.position(position);
+    }
+
+    private int replay() throws IOException {
+        Direction[] directions = Direction.values();
+        Direction orientation = satellite.getOrientation();
+        boolean panelsActive = satellite.isSolarPanelsActive();
+        long dataCollected = satellite.getDataCollected();
+        int replayed = 0;
+
+        mapped.position(0);
+        records:
+        while (mapped.remaining() >= RECORD_SIZE) {
+            byte opcode = mapped.get(mapped.position());
+            if (opcode == OP_END) {
+                break;
+            }
+            byte argument = mapped.get(mapped.position() + 1);
+            switch (opcode) {
+                case OP_ROTATE:
+                    if (argument < 0 || argument >= directions.length) {
+                        throw new IOException("Corrupt journal record at position " + mapped.position()
+                                + ": unknown direction " + argument);
+                    }
+                    orientation = directions[argument];
+                    break;
+                case OP_ACTIVATE_PANELS:
+                    panelsActive = true;
+                    break;
+                case OP_DEACTIVATE_PANELS:
+                    panelsActive = false;
+                    break;
+                case OP_COLLECT_DATA:
+                    if (panelsActive) {
+                        dataCollected += Satellite.DATA_PER_COLLECTION;
+                    }
+                    break;
+                default:
+                    logger.log(Level.WARNING, "Unknown journal opcode {0}; truncating replay.", opcode);
+                    break records;
+            }
+            mapped.position(mapped.position() + RECORD_SIZE);
+            replayed++;
+        }
+        satellite.restore(orientation, panelsActive, dataCollected);
+        sinceSnapshot = replayed;
+        return replayed;
+    }
+
+    private Path journalFile(long journalGeneration) {
+        return directory.resolve("journal-" + journalGeneration + ".wal");
+    }
+}
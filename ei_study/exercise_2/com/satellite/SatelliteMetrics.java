@@ -0,0 +1,223 @@
+package com.satellite;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+public class SatelliteMetrics implements SatelliteMetricsMXBean {
+    public enum StateChange {
+        ORIENTATION, PANELS_ACTIVATED, PANELS_DEACTIVATED, DATA_COLLECTED
+    }
+
+    private static final Logger logger = LoggerSingleton.getInstance();
+    private static final CommandType[] TYPES = CommandType.values();
+    private static final StateChange[] CHANGES = StateChange.values();
+    private static final SatelliteMetrics instance = new SatelliteMetrics();
+
+    private static volatile boolean enabled = Boolean.getBoolean("satellite.metrics");
+
+    private final LongAdder[] executed = adders(TYPES.length);
+    private final LongAdder[] rejected = adders(TYPES.length);
+    private final LongAdder[] stateChanges = adders(CHANGES.length);
+    private final ConcurrentLatencyHistogram[] latencies = new ConcurrentLatencyHistogram[TYPES.length];
+
+    private static final long RATE_WINDOW_SECONDS = 5;
+
+    private long lastRateNanos = System.nanoTime();
+    private long lastRateRejections;
+    private volatile double rejectionRate;
+    private ScheduledExecutorService sampler;
+    private ScheduledExecutorService dumper;
+
+    private SatelliteMetrics() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new ConcurrentLatencyHistogram();
+        }
+    }
+
+    public static SatelliteMetrics getInstance() {
+        return instance;
+    }
+
+    // Callers check this before reading the clock, so disabled metrics cost a
+    // single volatile read on the command path.
+    public static boolean enabled() {
+        return enabled;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        SatelliteMetrics.enabled = enabled;
+    }
+
+    public void recordExecuted(CommandType type, long latencyNanos) {
+        executed[type.ordinal()].increment();
+        latencies[type.ordinal()].record(latencyNanos);
+    }
+
+    public void recordRejected(CommandType type, long latencyNanos) {
+        rejected[type.ordinal()].increment();
+        latencies[type.ordinal()].record(latencyNanos);
+    }
+
+    // For commands turned away before they ran, which have no latency worth
+    // mixing into the percentiles.
+    public void recordRejected(CommandType type) {
+        rejected[type.ordinal()].increment();
+    }
+
+    public static void stateChanged(StateChange change) {
+        if (enabled) {
+            instance.stateChanges[change.ordinal()].increment();
+        }
+    }
+
+    public void registerMBean() {
+        try {
+            ObjectName name = new ObjectName("com.satellite:type=SatelliteMetrics");
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            logger.log(Level.WARNING, "Failed to register satellite metrics MBean.", e);
+        }
+        startRateSampler();
+    }
+
+    // The rejection rate window belongs to this sampler rather than to
+    // whoever reads it, so any number of JMX clients see the same rate.
+    private synchronized void startRateSampler() {
+        if (sampler != null) {
+            return;
+        }
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "satellite-metrics-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(this::sampleRejectionRate,
+                RATE_WINDOW_SECONDS, RATE_WINDOW_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private void sampleRejectionRate() {
+        long now = System.nanoTime();
+        long total = 0;
+        for (LongAdder adder : rejected) {
+            total += adder.sum();
+        }
+        rejectionRate = (total - lastRateRejections) * 1_000_000_000.0 / (now - lastRateNanos);
+        lastRateNanos = now;
+        lastRateRejections = total;
+    }
+
+    public synchronized void startPeriodicDump(long periodSeconds) {
+        if (dumper != null) {
+            return;
+        }
+        dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "satellite-metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleAtFixedRate(() -> logger.log(Level.INFO, "{0}", getSnapshot()),
+                periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stopPeriodicDump() {
+        if (dumper != null) {
+            dumper.shutdown();
+            dumper = null;
+        }
+    }
+
+    @Override
+    public Map<String, Long> getCommandCounts() {
+        return byType(executed);
+    }
+
+    @Override
+    public Map<String, Long> getRejectionCounts() {
+        return byType(rejected);
+    }
+
+    @Override
+    public Map<String, Long> getStateChangeCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (StateChange change : CHANGES) {
+            counts.put(change.name(), stateChanges[change.ordinal()].sum());
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getP50LatencyNanos() {
+        return percentiles(50);
+    }
+
+    @Override
+    public Map<String, Long> getP99LatencyNanos() {
+        return percentiles(99);
+    }
+
+    // Rate over the sampler's last completed window, so a polling JMX console
+    // sees the current rate rather than a lifetime average, and reading it
+    // never disturbs another client's view. Zero until the first window ends.
+    @Override
+    public double getRejectionRatePerSecond() {
+        return rejectionRate;
+    }
+
+    @Override
+    public String getSnapshot() {
+        StringBuilder text = new StringBuilder("Satellite metrics:");
+        for (CommandType type : TYPES) {
+            LatencyHistogram histogram = latencies[type.ordinal()].snapshot();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            text.append(String.format("\n  %s: executed %d, rejected %d, p50 %d ns, p99 %d ns, max %d ns",
+                    type, executed[type.ordinal()].sum(), rejected[type.ordinal()].sum(),
+                    histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(99),
+                    histogram.getMax()));
+        }
+        text.append("\n  State changes: ").append(getStateChangeCounts());
+        return text.toString();
+    }
+
+    private Map<String, Long> byType(LongAdder[] adders) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (CommandType type : TYPES) {
+            counts.put(type.name(), adders[type.ordinal()].sum());
+        }
+        return counts;
+    }
+
+    private Map<String, Long> percentiles(double percentile) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (CommandType type : TYPES) {
+            values.put(type.name(), latencies[type.ordinal()].snapshot().getValueAtPercentile(percentile));
+        }
+        return values;
+    }
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
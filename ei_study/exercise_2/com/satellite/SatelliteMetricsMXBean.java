@@ -0,0 +1,23 @@
+package com.satellite;
+
+import java.util.Map;
+
+public interface SatelliteMetricsMXBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    Map<String, Long> getCommandCounts();
+
+    Map<String, Long> getRejectionCounts();
+
+    Map<String, Long> getStateChangeCounts();
+
+    Map<String, Long> getP50LatencyNanos();
+
+    Map<String, Long> getP99LatencyNanos();
+
+    double getRejectionRatePerSecond();
+
+    String getSnapshot();
+}
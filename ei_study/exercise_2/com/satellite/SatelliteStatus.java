@@ -0,0 +1,58 @@
+package com.satellite;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+// Fixed binary status layout, big-endian unless the buffer says otherwise:
+//   u8 version | u8 orientation ordinal | u8 flags (bit 0: panels active) | i64 data collected
+public final class SatelliteStatus {
+    public static final byte VERSION = 1;
+    public static final int SIZE = 1 + 1 + 1 + 8;
+    private static final int PANELS_ACTIVE = 1;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final Direction orientation;
+    private final boolean solarPanelsActive;
+    private final long dataCollected;
+
+    SatelliteStatus(Direction orientation, boolean solarPanelsActive, long dataCollected) {
+        this.orientation = orientation;
+        this.solarPanelsActive = solarPanelsActive;
+        this.dataCollected = dataCollected;
+    }
+
+    static void write(ByteBuffer out, Direction orientation, boolean solarPanelsActive, long dataCollected) {
+        out.put(VERSION)
+                .put((byte) orientation.ordinal())
+                .put((byte) (solarPanelsActive ? PANELS_ACTIVE : 0))
+                .putLong(dataCollected);
+    }
+
+    public static SatelliteStatus read(ByteBuffer in) {
+        if (in.remaining() < SIZE) {
+            throw new BufferUnderflowException();
+        }
+        byte version = in.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported satellite status version: " + version);
+        }
+        int orientation = in.get();
+        if (orientation < 0 || orientation >= DIRECTIONS.length) {
+            throw new IllegalArgumentException("Invalid orientation in satellite status: " + orientation);
+        }
+        boolean panelsActive = (in.get() & PANELS_ACTIVE) != 0;
+        return new SatelliteStatus(DIRECTIONS[orientation], panelsActive, in.getLong());
+    }
+
+    public Direction getOrientation() {
+        return orientation;
+    }
+
+    public boolean isSolarPanelsActive() {
+        return solarPanelsActive;
+    }
+
+    public long getDataCollected() {
+        return dataCollected;
+    }
+}
@@ -0,0 +1,196 @@
+package com.satellite;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+public class ScriptRunner {
+    private static final byte[] ROTATE = bytes("rotate");
+    private static final byte[] ACTIVATE_PANELS = bytes("activatepanels");
+    private static final byte[] DEACTIVATE_PANELS = bytes("deactivatepanels");
+    private static final byte[] COLLECT_DATA = bytes("collectdata");
+    private static final byte[] STATUS = bytes("status");
+    private static final byte[] EXIT = bytes("exit");
+    private static final byte[][] DIRECTIONS = new byte[Direction.values().length][];
+    // Zero-length scratch for tokens that are only counted, never compared.
+    private static final byte[] DISCARD = new byte[0];
+
+    static {
+        for (Direction direction : Direction.values()) {
+            DIRECTIONS[direction.ordinal()] = bytes(direction.name());
+        }
+    }
+
+    private final Satellite satellite;
+    private final CommandInvoker invoker;
+    private final AdmissionController admission;
+    private final RotateCommand[] rotateCommands = new RotateCommand[Direction.values().length];
+    private final Command activatePanels;
+    private final Command deactivatePanels;
+    private final Command collectData;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    private final byte[] buffer = new byte[64 * 1024];
+    private int position;
+    private int limit;
+    private final byte[] verb = new byte[32];
+    private final byte[] argument = new byte[32];
+
+    public ScriptRunner(Satellite satellite, CommandInvoker invoker, AdmissionController admission) {
+        this.satellite = satellite;
+        this.invoker = invoker;
+        this.admission = admission;
+        for (Direction direction : Direction.values()) {
+            rotateCommands[direction.ordinal()] = new RotateCommand(satellite, direction);
+        }
+        this.activatePanels = new ActivatePanelsCommand(satellite);
+        this.deactivatePanels = new DeactivatePanelsCommand(satellite);
+        this.collectData = new CollectDataCommand(satellite);
+    }
+
+    // Lines are tokenized straight out of the read buffer into two reusable
+    // lower-cased scratch arrays, so a well-formed line allocates nothing.
+    public ScriptSummary run(InputStream in) throws IOException {
+        histogram.reset();
+        position = 0;
+        limit = 0;
+        long executed = 0;
+        long rejected = 0;
+        long invalid = 0;
+        long start = System.nanoTime();
+
+        while (true) {
+            int verbLength = nextToken(in, verb);
+            if (verbLength == -1) {
+                break;
+            }
+            if (verbLength == 0) {
+                skipLine(in);
+                continue;
+            }
+            int argumentLength = Math.max(0, nextToken(in, argument));
+            boolean extraTokens = argumentLength > 0 && nextToken(in, DISCARD) > 0;
+            skipLine(in);
+
+            if (matches(verb, verbLength, EXIT)) {
+                break;
+            }
+            // "rotate east west" must not quietly run as "rotate east".
+            if (extraTokens) {
+                if (verb[0] != '#') {
+                    invalid++;
+                }
+                continue;
+            }
+            Command command = resolve(verbLength, argumentLength);
+            if (command == null) {
+                if (matches(verb, verbLength, STATUS)) {
+                    System.out.println(satellite);
+                } else if (verb[0] != '#') {
+                    invalid++;
+                }
+                continue;
+            }
+
+            // Commands that are refused (or fail to run) are counted but kept
+            // out of the latency percentiles.
+            long commandStart = System.nanoTime();
+            if (admission.execute(satellite, command, invoker) != AdmissionResult.ADMITTED) {
+                rejected++;
+                continue;
+            }
+            executed++;
+            histogram.record(System.nanoTime() - commandStart);
+        }
+        return new ScriptSummary(executed, rejected, invalid, System.nanoTime() - start,
+                histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(99));
+    }
+
+    private Command resolve(int verbLength, int argumentLength) {
+        if (matches(verb, verbLength, ROTATE)) {
+            for (int i = 0; i < DIRECTIONS.length; i++) {
+                if (matches(argument, argumentLength, DIRECTIONS[i])) {
+                    return rotateCommands[i];
+                }
+            }
+            return null;
+        }
+        if (argumentLength > 0) {
+            return null;
+        }
+        if (matches(verb, verbLength, ACTIVATE_PANELS)) {
+            return activatePanels;
+        }
+        if (matches(verb, verbLength, DEACTIVATE_PANELS)) {
+            return deactivatePanels;
+        }
+        if (matches(verb, verbLength, COLLECT_DATA)) {
+            return collectData;
+        }
+        return null;
+    }
+
+    // Returns the token length, 0 at end of line, or -1 at end of input.
+    // Tokens longer than the scratch array are truncated and never match.
+    private int nextToken(InputStream in, byte[] token) throws IOException {
+        int b;
+        do {
+            b = read(in);
+            if (b == -1) {
+                return -1;
+            }
+            if (b == '\n') {
+                position--;
+                return 0;
+            }
+        } while (b == ' ' || b == '\t' || b == '\r');
+
+        int length = 0;
+        while (b != -1 && b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+            if (length < token.length) {
+                token[length] = (byte) Character.toLowerCase(b);
+            }
+            length++;
+            b = read(in);
+        }
+        if (b != -1) {
+            position--;
+        }
+        return length;
+    }
+
+    private void skipLine(InputStream in) throws IOException {
+        int b;
+        do {
+            b = read(in);
+        } while (b != -1 && b != '\n');
+    }
+
+    private int read(InputStream in) throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    private static boolean matches(byte[] token, int length, byte[] keyword) {
+        if (length != keyword.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (token[i] != keyword[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] bytes(String keyword) {
+        return keyword.toLowerCase().getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,56 @@
+package com.satellite;
+
+public class ScriptSummary {
+    private final long executed;
+    private final long rejected;
+    private final long invalid;
+    private final long elapsedNanos;
+    private final long p50LatencyNanos;
+    private final long p99LatencyNanos;
+
+    ScriptSummary(long executed, long rejected, long invalid, long elapsedNanos,
+                  long p50LatencyNanos, long p99LatencyNanos) {
+        this.executed = executed;
+        this.rejected = rejected;
+        this.invalid = invalid;
+        this.elapsedNanos = elapsedNanos;
+        this.p50LatencyNanos = p50LatencyNanos;
+        this.p99LatencyNanos = p99LatencyNanos;
+    }
+
+    public long getExecuted() {
+        return executed;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getInvalid() {
+        return invalid;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0.0 : (executed + rejected) * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    public long getP50LatencyNanos() {
+        return p50LatencyNanos;
+    }
+
+    public long getP99LatencyNanos() {
+        return p99LatencyNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Executed: %d, Rejected: %d, Invalid: %d, Elapsed: %.1f ms\n"
+                        + "Throughput: %.0f commands/sec, Latency (ns): p50 %d / p99 %d",
+                executed, rejected, invalid, elapsedNanos / 1_000_000.0,
+                getThroughput(), p50LatencyNanos, p99LatencyNanos);
+    }
+}
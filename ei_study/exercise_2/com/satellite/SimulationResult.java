@@ -0,0 +1,126 @@
+package com.satellite;
+
+import java.util.Arrays;
+
+public class SimulationResult {
+    private final int runs;
+    private final long steps;
+    private final long totalDataCollected;
+    private final long rejectedCommands;
+    private final long rotations;
+    private final long panelActivations;
+    private final long panelDeactivations;
+    private final long collections;
+    private final long minRunData;
+    private final long maxRunData;
+    private final long runsEndingWithPanelsOn;
+    private final long[] endOrientations;
+    private final long elapsedNanos;
+
+    SimulationResult(int runs, long steps, long totalDataCollected, long rejectedCommands, long rotations,
+                     long panelActivations, long panelDeactivations, long collections, long minRunData,
+                     long maxRunData, long runsEndingWithPanelsOn, long[] endOrientations, long elapsedNanos) {
+        this.runs = runs;
+        this.steps = steps;
+        this.totalDataCollected = totalDataCollected;
+        this.rejectedCommands = rejectedCommands;
+        this.rotations = rotations;
+        this.panelActivations = panelActivations;
+        this.panelDeactivations = panelDeactivations;
+        this.collections = collections;
+        this.minRunData = minRunData;
+        this.maxRunData = maxRunData;
+        this.runsEndingWithPanelsOn = runsEndingWithPanelsOn;
+        this.endOrientations = endOrientations;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getRuns() {
+        return runs;
+    }
+
+    public long getSteps() {
+        return steps;
+    }
+
+    public long getTotalDataCollected() {
+        return totalDataCollected;
+    }
+
+    public double getAverageDataPerRun() {
+        return (double) totalDataCollected / runs;
+    }
+
+    public long getRejectedCommands() {
+        return rejectedCommands;
+    }
+
+    public long getRotations() {
+        return rotations;
+    }
+
+    public long getPanelActivations() {
+        return panelActivations;
+    }
+
+    public long getPanelDeactivations() {
+        return panelDeactivations;
+    }
+
+    public long getCollections() {
+        return collections;
+    }
+
+    public long getMinRunData() {
+        return minRunData;
+    }
+
+    public long getMaxRunData() {
+        return maxRunData;
+    }
+
+    public long getRunsEndingWithPanelsOn() {
+        return runsEndingWithPanelsOn;
+    }
+
+    public long getRunsEndingFacing(Direction direction) {
+        return endOrientations[direction.ordinal()];
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    // Elapsed time is left out so results from the same seed compare equal.
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof SimulationResult)) {
+            return false;
+        }
+        SimulationResult that = (SimulationResult) other;
+        return runs == that.runs && steps == that.steps && totalDataCollected == that.totalDataCollected
+                && rejectedCommands == that.rejectedCommands && rotations == that.rotations
+                && panelActivations == that.panelActivations && panelDeactivations == that.panelDeactivations
+                && collections == that.collections && minRunData == that.minRunData
+                && maxRunData == that.maxRunData && runsEndingWithPanelsOn == that.runsEndingWithPanelsOn
+                && Arrays.equals(endOrientations, that.endOrientations);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(totalDataCollected) * 31 + Long.hashCode(rejectedCommands);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Runs: %d, Steps: %d, Elapsed: %.1f ms\n"
+                        + "Data collected: %d units (avg %.1f, min %d, max %d per run)\n"
+                        + "Rejected commands: %d, Runs ending with panels active: %d",
+                runs, steps, elapsedNanos / 1_000_000.0,
+                totalDataCollected, getAverageDataPerRun(), minRunData, maxRunData,
+                rejectedCommands, runsEndingWithPanelsOn);
+    }
+}
@@ -0,0 +1,67 @@
+package com.satellite;
+
+import java.text.MessageFormat;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.logging.Level;
+
+public final class StructuredLogEntry {
+    private final long timestamp;
+    private final Level level;
+    private final String source;
+    private final String template;
+    private final Object[] arguments;
+    private final String thrown;
+
+    StructuredLogEntry(long timestamp, Level level, String source, String template, Object[] arguments,
+                       String thrown) {
+        this.timestamp = timestamp;
+        this.level = level;
+        this.source = source;
+        this.template = template;
+        this.arguments = arguments;
+        this.thrown = thrown;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    public Object[] getArguments() {
+        return arguments.clone();
+    }
+
+    public String getThrown() {
+        return thrown;
+    }
+
+    // Renders the template the way java.util.logging would have.
+    public String getMessage() {
+        if (arguments.length == 0) {
+            return template;
+        }
+        try {
+            return new MessageFormat(template).format(arguments);
+        } catch (IllegalArgumentException e) {
+            return template + " " + Arrays.toString(arguments);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return Instant.ofEpochMilli(timestamp) + " " + level + " " + source + ": " + getMessage()
+                + (thrown == null ? "" : " [" + thrown + "]");
+    }
+}
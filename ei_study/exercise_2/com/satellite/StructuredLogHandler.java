@@ -0,0 +1,301 @@
+package com.satellite;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.LogRecord;
+
+// Writes log records as binary events (see StructuredLogIndex for the layout)
+// instead of formatted text, keeping the message template and its arguments
+// as separate fields. Like FileHandler it can be configured entirely through
+// logging.properties, so any java.util.logging logger can use it:
+//   com.satellite.StructuredLogHandler.directory     (default logs/structured)
+//   com.satellite.StructuredLogHandler.segmentBytes  (default 64 MiB)
+//   com.satellite.StructuredLogHandler.blockEvents   (default 256)
+//   com.satellite.StructuredLogHandler.level         (default ALL)
+//   com.satellite.StructuredLogHandler.pushLevel     (default WARNING)
+// Records are batched in memory; like MemoryHandler, a record at or above the
+// push level writes the batch out immediately so it is not lost in a crash.
+public class StructuredLogHandler extends Handler {
+    private static final int BATCH_BYTES = 64 << 10;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int blockEvents;
+    private final ByteBuffer batch = ByteBuffer.allocateDirect(BATCH_BYTES);
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private ByteBuffer scratch = ByteBuffer.allocate(1024);
+    private volatile Level pushLevel = Level.WARNING;
+    private StructuredLogIndex index;
+    private FileChannel channel;
+    private long sequence;
+    private int written;
+
+    public StructuredLogHandler() throws IOException {
+        this(Paths.get(property("directory", "logs/structured")),
+                Integer.parseInt(property("segmentBytes", String.valueOf(64 << 20))),
+                Integer.parseInt(property("blockEvents", "256")));
+        String level = property("level", null);
+        if (level != null) {
+            setLevel(Level.parse(level));
+        }
+        String push = property("pushLevel", null);
+        if (push != null) {
+            setPushLevel(Level.parse(push));
+        }
+    }
+
+    public StructuredLogHandler(Path directory, int segmentBytes, int blockEvents) throws IOException {
+        if (directory == null) {
+            throw new IllegalArgumentException("Directory cannot be null");
+        }
+        if (segmentBytes < BATCH_BYTES || blockEvents <= 0) {
+            throw new IllegalArgumentException("Segment must hold at least one batch and blocks must be positive");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.blockEvents = blockEvents;
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + StructuredLogIndex.SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long existing = Long.parseLong(
+                        name.substring(0, name.length() - StructuredLogIndex.SEGMENT_SUFFIX.length()));
+                sequence = Math.max(sequence, existing + 1);
+            }
+        }
+        openSegment();
+    }
+
+    public void setPushLevel(Level pushLevel) {
+        if (pushLevel == null) {
+            throw new IllegalArgumentException("Push level cannot be null");
+        }
+        this.pushLevel = pushLevel;
+    }
+
+    public Level getPushLevel() {
+        return pushLevel;
+    }
+
+    @Override
+    public synchronized void publish(LogRecord record) {
+        if (record == null || channel == null || !isLoggable(record)) {
+            return;
+        }
+        try {
+            for (boolean retried = false; ; retried = true) {
+                long segment = sequence;
+                int sourceId = idOf(record.getLoggerName() == null ? "" : record.getLoggerName());
+                int templateId = idOf(record.getMessage() == null ? "" : record.getMessage());
+                ByteBuffer event = encodeEvent(record, sourceId, templateId);
+                int position = reserve(event.remaining());
+                if (position >= 0 && segment == sequence) {
+                    int end = position + event.remaining();
+                    put(event);
+                    index.event(position, end, record.getMillis(), StructuredLogIndex.levelCode(record.getLevel()));
+                    break;
+                }
+                // The segment rolled and the dictionary with it; encode again.
+                // A second roll means the record and its definitions cannot
+                // share any segment.
+                if (retried) {
+                    throw new IOException("Structured log record and its definitions larger than a segment");
+                }
+            }
+            if (record.getLevel().intValue() >= pushLevel.intValue()) {
+                writeBatch();
+            }
+        } catch (IOException e) {
+            reportError("Failed to write structured log record", e, ErrorManager.WRITE_FAILURE);
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            writeBatch();
+        } catch (IOException e) {
+            reportError("Failed to flush structured log", e, ErrorManager.FLUSH_FAILURE);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            sealSegment();
+        } catch (IOException e) {
+            reportError("Failed to close structured log", e, ErrorManager.CLOSE_FAILURE);
+        }
+    }
+
+    private int idOf(String value) throws IOException {
+        Integer id = dictionary.get(value);
+        if (id != null) {
+            return id;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int recordSize = StructuredLogIndex.RECORD_HEADER + bytes.length;
+        int position = reserve(recordSize);
+        if (position < 0) {
+            // The segment rolled; reserve never rolls an empty segment, so
+            // this succeeds or throws.
+            position = reserve(recordSize);
+        }
+        ByteBuffer record = recordSize > batch.remaining() ? ByteBuffer.allocate(recordSize) : batch;
+        record.put(StructuredLogIndex.RECORD_DEFINE).putInt(bytes.length).put(bytes);
+        if (record != batch) {
+            put(record.flip());
+        }
+        int newId = index.strings.size();
+        index.define(value, position + recordSize);
+        dictionary.put(value, newId);
+        return newId;
+    }
+
+    // Makes room for a record and returns its file position, or -1 when the
+    // segment had to roll first, which invalidates any ids already resolved.
+    private int reserve(int recordSize) throws IOException {
+        if (recordSize > segmentBytes) {
+            throw new IOException("Structured log record larger than a segment: " + recordSize + " bytes");
+        }
+        if (written + batch.position() + recordSize > segmentBytes) {
+            try {
+                sealSegment();
+            } finally {
+                openSegment();
+            }
+            return -1;
+        }
+        if (recordSize > batch.remaining()) {
+            writeBatch();
+        }
+        return written + batch.position();
+    }
+
+    // Appends a reserved record, writing it straight through when it is larger
+    // than the batch (reserve has already emptied the batch in that case).
+    private void put(ByteBuffer record) throws IOException {
+        if (record.remaining() <= batch.remaining()) {
+            batch.put(record);
+            return;
+        }
+        while (record.hasRemaining()) {
+            written += channel.write(record, written);
+        }
+    }
+
+    private ByteBuffer encodeEvent(LogRecord record, int sourceId, int templateId) {
+        ByteBuffer out = scratch;
+        while (true) {
+            out.clear();
+            try {
+                out.put(StructuredLogIndex.RECORD_EVENT).putInt(0)
+                        .putLong(record.getMillis())
+                        .put((byte) StructuredLogIndex.levelCode(record.getLevel()))
+                        .putInt(sourceId)
+                        .putInt(templateId);
+                Object[] parameters = record.getParameters();
+                int count = parameters == null ? 0 : Math.min(parameters.length, 255);
+                out.put((byte) count);
+                for (int i = 0; i < count; i++) {
+                    putArgument(out, parameters[i]);
+                }
+                Throwable thrown = record.getThrown();
+                out.put((byte) (thrown == null ? 0 : 1));
+                if (thrown != null) {
+                    putString(out, thrown.toString());
+                }
+                out.putInt(1, out.position() - StructuredLogIndex.RECORD_HEADER);
+                out.flip();
+                return out;
+            } catch (BufferOverflowException e) {
+                out = ByteBuffer.allocate(out.capacity() * 2);
+                scratch = out;
+            }
+        }
+    }
+
+    private static void putArgument(ByteBuffer out, Object argument) {
+        if (argument == null) {
+            out.put(StructuredLogIndex.ARG_NULL);
+        } else if (argument instanceof Long || argument instanceof Integer
+                || argument instanceof Short || argument instanceof Byte) {
+            out.put(StructuredLogIndex.ARG_LONG).putLong(((Number) argument).longValue());
+        } else if (argument instanceof Double || argument instanceof Float) {
+            out.put(StructuredLogIndex.ARG_DOUBLE).putDouble(((Number) argument).doubleValue());
+        } else if (argument instanceof Boolean) {
+            out.put(StructuredLogIndex.ARG_BOOLEAN).put((byte) ((Boolean) argument ? 1 : 0));
+        } else {
+            out.put(StructuredLogIndex.ARG_STRING);
+            putString(out, argument.toString());
+        }
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putInt(bytes.length).put(bytes);
+    }
+
+    private void writeBatch() throws IOException {
+        if (batch.position() == 0) {
+            return;
+        }
+        batch.flip();
+        while (batch.hasRemaining()) {
+            written += channel.write(batch, written);
+        }
+        batch.clear();
+    }
+
+    // Leaves channel null when the segment cannot be created, so the handler
+    // stops accepting records instead of writing to a closed channel.
+    private void openSegment() throws IOException {
+        Path file = directory.resolve(String.format("%020d", sequence) + StructuredLogIndex.SEGMENT_SUFFIX);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        written = 0;
+        index = new StructuredLogIndex(blockEvents);
+        dictionary.clear();
+    }
+
+    // Always closes the segment and moves past it, even when the final write
+    // fails; a missing index is rebuilt by StructuredLogStore from the data.
+    private void sealSegment() throws IOException {
+        long sealed = sequence;
+        try {
+            writeBatch();
+            channel.force(false);
+        } finally {
+            FileChannel closing = channel;
+            channel = null;
+            sequence++;
+            batch.clear();
+            closing.close();
+        }
+        index.write(directory.resolve(String.format("%020d", sealed) + StructuredLogIndex.INDEX_SUFFIX));
+    }
+
+    private static String property(String name, String defaultValue) {
+        String value = LogManager.getLogManager().getProperty(StructuredLogHandler.class.getName() + "." + name);
+        return value == null ? defaultValue : value.trim();
+    }
+}
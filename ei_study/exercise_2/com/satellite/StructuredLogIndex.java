@@ -0,0 +1,201 @@
+package com.satellite;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+
+// Segment layout shared by StructuredLogHandler (writer) and StructuredLogStore
+// (reader). A segment is a sequence of records:
+//   u8 kind | i32 payload length | payload
+// DEFINE payloads are UTF-8 strings that take the next dictionary id; sources
+// and message templates are written once per segment and referenced by id.
+// EVENT payloads are:
+//   i64 epoch millis | u8 level code | i32 source id | i32 template id |
+//   u8 argument count | arguments | u8 has thrown | [string thrown]
+// where each argument is a u8 type tag followed by its value.
+//
+// Events are grouped into blocks of a fixed number of events. Each block keeps
+// its byte range, min/max timestamp and a bit mask of the levels it contains,
+// which together serve as the time and level index. The index is persisted
+// next to the segment when it is sealed and rebuilt from the data otherwise,
+// including when the persisted copy cannot be read.
+final class StructuredLogIndex {
+    static final String SEGMENT_SUFFIX = ".slog";
+    static final String INDEX_SUFFIX = ".sidx";
+    static final byte RECORD_DEFINE = 1;
+    static final byte RECORD_EVENT = 2;
+    static final int RECORD_HEADER = 1 + Integer.BYTES;
+
+    static final byte ARG_NULL = 0;
+    static final byte ARG_LONG = 1;
+    static final byte ARG_DOUBLE = 2;
+    static final byte ARG_STRING = 3;
+    static final byte ARG_BOOLEAN = 4;
+
+    static final Level[] LEVELS = {
+            Level.FINEST, Level.FINER, Level.FINE, Level.CONFIG, Level.INFO, Level.WARNING, Level.SEVERE
+    };
+
+    final int blockEvents;
+    final List<String> strings = new ArrayList<>();
+    int blockCount;
+    int[] blockStarts = new int[16];
+    int[] blockEnds = new int[16];
+    long[] minTimes = new long[16];
+    long[] maxTimes = new long[16];
+    int[] levelMasks = new int[16];
+    int[] eventCounts = new int[16];
+    int coveredBytes;
+
+    StructuredLogIndex(int blockEvents) {
+        this.blockEvents = blockEvents;
+    }
+
+    // Custom levels are indexed under the nearest standard level below them.
+    static int levelCode(Level level) {
+        int value = level.intValue();
+        for (int code = LEVELS.length - 1; code > 0; code--) {
+            if (value >= LEVELS[code].intValue()) {
+                return code;
+            }
+        }
+        return 0;
+    }
+
+    // Mask of every level code at or above the given level.
+    static int levelMaskFrom(Level minLevel) {
+        return minLevel == null ? (1 << LEVELS.length) - 1 : ((1 << LEVELS.length) - 1) & -(1 << levelCode(minLevel));
+    }
+
+    void define(String value, int end) {
+        strings.add(value);
+        coveredBytes = end;
+    }
+
+    void event(int position, int end, long timestamp, int levelCode) {
+        int block = blockCount - 1;
+        if (block < 0 || eventCounts[block] == blockEvents) {
+            if (blockCount == blockStarts.length) {
+                grow(blockCount * 2);
+            }
+            block = blockCount++;
+            blockStarts[block] = position;
+            minTimes[block] = timestamp;
+            maxTimes[block] = timestamp;
+        }
+        blockEnds[block] = end;
+        minTimes[block] = Math.min(minTimes[block], timestamp);
+        maxTimes[block] = Math.max(maxTimes[block], timestamp);
+        levelMasks[block] |= 1 << levelCode;
+        eventCounts[block]++;
+        coveredBytes = end;
+    }
+
+    // Indexes whole records from coveredBytes up to limit, stopping at a torn
+    // tail that a writer has not finished yet.
+    void scan(ByteBuffer data, int limit) {
+        int position = coveredBytes;
+        while (position + RECORD_HEADER <= limit) {
+            byte kind = data.get(position);
+            int length = data.getInt(position + 1);
+            int end = position + RECORD_HEADER + length;
+            if (length < 0 || end > limit) {
+                break;
+            }
+            if (kind == RECORD_DEFINE) {
+                byte[] bytes = new byte[length];
+                data.get(position + RECORD_HEADER, bytes);
+                define(new String(bytes, StandardCharsets.UTF_8), end);
+            } else if (kind == RECORD_EVENT) {
+                long timestamp = data.getLong(position + RECORD_HEADER);
+                event(position, end, timestamp, data.get(position + RECORD_HEADER + Long.BYTES));
+            } else {
+                break;
+            }
+            position = end;
+        }
+    }
+
+    void write(Path file) throws IOException {
+        int size = Integer.BYTES * 3;
+        List<byte[]> encoded = new ArrayList<>(strings.size());
+        for (String value : strings) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            size += Integer.BYTES + bytes.length;
+        }
+        size += blockCount * (4 * Integer.BYTES + 2 * Long.BYTES);
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putInt(coveredBytes).putInt(encoded.size()).putInt(blockCount);
+        for (byte[] bytes : encoded) {
+            out.putInt(bytes.length).put(bytes);
+        }
+        for (int i = 0; i < blockCount; i++) {
+            out.putInt(blockStarts[i]).putInt(blockEnds[i]).putLong(minTimes[i]).putLong(maxTimes[i])
+                    .putInt(levelMasks[i]).putInt(eventCounts[i]);
+        }
+        out.flip();
+        // Readers only ever see a complete index: it is synced under a
+        // temporary name and then renamed over the final one.
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // Throws IOException or a RuntimeException such as BufferUnderflowException
+    // when the file is damaged; callers fall back to scan().
+    static StructuredLogIndex read(Path file, int blockEvents) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+        StructuredLogIndex index = new StructuredLogIndex(blockEvents);
+        int covered = in.getInt();
+        int stringCount = in.getInt();
+        int blocks = in.getInt();
+        if (covered < 0 || stringCount < 0 || blocks < 0) {
+            throw new IOException("Corrupt structured log index: " + file);
+        }
+        for (int i = 0; i < stringCount; i++) {
+            byte[] bytes = new byte[in.getInt()];
+            in.get(bytes);
+            index.strings.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        index.grow(Math.max(16, blocks));
+        for (int i = 0; i < blocks; i++) {
+            index.blockStarts[i] = in.getInt();
+            index.blockEnds[i] = in.getInt();
+            index.minTimes[i] = in.getLong();
+            index.maxTimes[i] = in.getLong();
+            index.levelMasks[i] = in.getInt();
+            index.eventCounts[i] = in.getInt();
+        }
+        if (in.hasRemaining()) {
+            throw new IOException("Corrupt structured log index: " + file);
+        }
+        index.blockCount = blocks;
+        index.coveredBytes = covered;
+        return index;
+    }
+
+    private void grow(int capacity) {
+        blockStarts = Arrays.copyOf(blockStarts, capacity);
+        blockEnds = Arrays.copyOf(blockEnds, capacity);
+        minTimes = Arrays.copyOf(minTimes, capacity);
+        maxTimes = Arrays.copyOf(maxTimes, capacity);
+        levelMasks = Arrays.copyOf(levelMasks, capacity);
+        eventCounts = Arrays.copyOf(eventCounts, capacity);
+    }
+}
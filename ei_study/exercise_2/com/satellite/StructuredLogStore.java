@@ -0,0 +1,239 @@
+package com.satellite;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+// Read side of StructuredLogHandler. Segments are memory-mapped, and a query
+// only decodes blocks whose time range and level mask can match; count() can
+// answer from the index alone for blocks that match completely. Time ranges
+// are [fromMillis, toMillis) and the level filter keeps records at or above
+// minLevel (null for all).
+public class StructuredLogStore implements AutoCloseable {
+    private static final int DEFAULT_BLOCK_EVENTS = 256;
+
+    private final Path directory;
+    private final Map<Long, Segment> segments = new TreeMap<>();
+
+    private StructuredLogStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public static StructuredLogStore open(Path directory) throws IOException {
+        if (directory == null || !Files.isDirectory(directory)) {
+            throw new IOException("Structured log directory not found: " + directory);
+        }
+        StructuredLogStore store = new StructuredLogStore(directory);
+        store.refresh();
+        return store;
+    }
+
+    // Picks up segments and records written since the store was opened.
+    public synchronized void refresh() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + StructuredLogIndex.SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long sequence = Long.parseLong(
+                        name.substring(0, name.length() - StructuredLogIndex.SEGMENT_SUFFIX.length()));
+                if (!segments.containsKey(sequence)) {
+                    segments.put(sequence, new Segment(file));
+                }
+            }
+        }
+        for (Segment segment : segments.values()) {
+            segment.refresh();
+        }
+    }
+
+    public synchronized long count(long fromMillis, long toMillis, Level minLevel) {
+        int wanted = StructuredLogIndex.levelMaskFrom(minLevel);
+        long count = 0;
+        for (Segment segment : segments.values()) {
+            StructuredLogIndex index = segment.index;
+            for (int block = 0; block < index.blockCount; block++) {
+                if (!overlaps(index, block, fromMillis, toMillis, wanted)) {
+                    continue;
+                }
+                if (index.minTimes[block] >= fromMillis && index.maxTimes[block] < toMillis
+                        && (index.levelMasks[block] & ~wanted) == 0) {
+                    count += index.eventCounts[block];
+                    continue;
+                }
+                ByteBuffer data = segment.data;
+                int position = index.blockStarts[block];
+                while (position < index.blockEnds[block]) {
+                    int payload = position + StructuredLogIndex.RECORD_HEADER;
+                    if (data.get(position) == StructuredLogIndex.RECORD_EVENT) {
+                        long timestamp = data.getLong(payload);
+                        int level = data.get(payload + Long.BYTES);
+                        if (timestamp >= fromMillis && timestamp < toMillis && (wanted & (1 << level)) != 0) {
+                            count++;
+                        }
+                    }
+                    position = payload + data.getInt(position + 1);
+                }
+            }
+        }
+        return count;
+    }
+
+    public List<StructuredLogEntry> query(long fromMillis, long toMillis, Level minLevel, int limit) {
+        List<StructuredLogEntry> entries = new ArrayList<>();
+        query(fromMillis, toMillis, minLevel, limit, entries::add);
+        return entries;
+    }
+
+    // Delivers matching records in segment order and returns how many matched.
+    public synchronized long query(long fromMillis, long toMillis, Level minLevel, long limit,
+                                   Consumer<StructuredLogEntry> consumer) {
+        int wanted = StructuredLogIndex.levelMaskFrom(minLevel);
+        long matched = 0;
+        for (Segment segment : segments.values()) {
+            StructuredLogIndex index = segment.index;
+            ByteBuffer data = segment.data;
+            for (int block = 0; block < index.blockCount && matched < limit; block++) {
+                if (!overlaps(index, block, fromMillis, toMillis, wanted)) {
+                    continue;
+                }
+                int position = index.blockStarts[block];
+                while (position < index.blockEnds[block] && matched < limit) {
+                    int payload = position + StructuredLogIndex.RECORD_HEADER;
+                    if (data.get(position) == StructuredLogIndex.RECORD_EVENT) {
+                        long timestamp = data.getLong(payload);
+                        int level = data.get(payload + Long.BYTES);
+                        if (timestamp >= fromMillis && timestamp < toMillis && (wanted & (1 << level)) != 0) {
+                            consumer.accept(decode(data, payload, timestamp, level, index.strings));
+                            matched++;
+                        }
+                    }
+                    position = payload + data.getInt(position + 1);
+                }
+            }
+        }
+        return matched;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Segment segment : segments.values()) {
+            segment.channel.close();
+        }
+        segments.clear();
+    }
+
+    private static boolean overlaps(StructuredLogIndex index, int block, long fromMillis, long toMillis, int wanted) {
+        return index.maxTimes[block] >= fromMillis && index.minTimes[block] < toMillis
+                && (index.levelMasks[block] & wanted) != 0;
+    }
+
+    private static StructuredLogEntry decode(ByteBuffer data, int payload, long timestamp, int level,
+                                             List<String> strings) {
+        int position = payload + Long.BYTES + 1;
+        String source = strings.get(data.getInt(position));
+        String template = strings.get(data.getInt(position + Integer.BYTES));
+        position += 2 * Integer.BYTES;
+        Object[] arguments = new Object[data.get(position++) & 0xFF];
+        for (int i = 0; i < arguments.length; i++) {
+            byte type = data.get(position++);
+            switch (type) {
+                case StructuredLogIndex.ARG_LONG:
+                    arguments[i] = data.getLong(position);
+                    position += Long.BYTES;
+                    break;
+                case StructuredLogIndex.ARG_DOUBLE:
+                    arguments[i] = data.getDouble(position);
+                    position += Double.BYTES;
+                    break;
+                case StructuredLogIndex.ARG_BOOLEAN:
+                    arguments[i] = data.get(position++) != 0;
+                    break;
+                case StructuredLogIndex.ARG_STRING:
+                    arguments[i] = getString(data, position);
+                    position += Integer.BYTES + data.getInt(position);
+                    break;
+                default:
+                    arguments[i] = null;
+                    break;
+            }
+        }
+        String thrown = data.get(position++) != 0 ? getString(data, position) : null;
+        return new StructuredLogEntry(timestamp, StructuredLogIndex.LEVELS[level], source, template, arguments, thrown);
+    }
+
+    private static String getString(ByteBuffer data, int position) {
+        byte[] bytes = new byte[data.getInt(position)];
+        data.get(position + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class Segment {
+        private final Path indexFile;
+        private final FileChannel channel;
+        private StructuredLogIndex index = new StructuredLogIndex(DEFAULT_BLOCK_EVENTS);
+        private ByteBuffer data = ByteBuffer.allocate(0);
+        private boolean sealed;
+        private boolean indexUnreadable;
+
+        Segment(Path file) throws IOException {
+            String name = file.getFileName().toString();
+            this.indexFile = file.resolveSibling(name.substring(0,
+                    name.length() - StructuredLogIndex.SEGMENT_SUFFIX.length()) + StructuredLogIndex.INDEX_SUFFIX);
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        }
+
+        // Sealed segments load their persisted index once; a segment that is
+        // still being written, or whose index is damaged, is remapped and
+        // indexed from where it left off.
+        void refresh() throws IOException {
+            if (sealed) {
+                return;
+            }
+            int size = (int) channel.size();
+            if (!indexUnreadable && Files.exists(indexFile)) {
+                try {
+                    StructuredLogIndex persisted = StructuredLogIndex.read(indexFile, DEFAULT_BLOCK_EVENTS);
+                    if (persisted.coveredBytes > size) {
+                        throw new IOException("Structured log index covers more than its segment: " + indexFile);
+                    }
+                    index = persisted;
+                    sealed = true;
+                } catch (IOException | RuntimeException e) {
+                    indexUnreadable = true;
+                }
+            }
+            if (size > data.capacity()) {
+                data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            if (index.coveredBytes < size) {
+                index.scan(data, size);
+            }
+        }
+    }
+
+    // Usage: StructuredLogStore <directory> <fromMillis> <toMillis> [minLevel]
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage: StructuredLogStore <directory> <fromMillis> <toMillis> [minLevel]");
+            return;
+        }
+        Level minLevel = args.length > 3 ? Level.parse(args[3]) : null;
+        long start = System.nanoTime();
+        try (StructuredLogStore store = open(Paths.get(args[0]))) {
+            long matched = store.query(Long.parseLong(args[1]), Long.parseLong(args[2]), minLevel,
+                    Long.MAX_VALUE, System.out::println);
+            System.out.printf("%d records in %.1f ms%n", matched, (System.nanoTime() - start) / 1e6);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.satellite;
+
+import java.util.Arrays;
+
+public class TelemetrySeries {
+    private long[] timestamps;
+    private double[] values;
+    private int size;
+
+    TelemetrySeries(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        this.timestamps = new long[capacity];
+        this.values = new double[capacity];
+    }
+
+    void add(long timestamp, double value) {
+        if (size == timestamps.length) {
+            int capacity = size * 2;
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        timestamps[size] = timestamp;
+        values[size] = value;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getTimestamp(int index) {
+        checkIndex(index);
+        return timestamps[index];
+    }
+
+    public double getValue(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    public long[] timestamps() {
+        return Arrays.copyOf(timestamps, size);
+    }
+
+    public double[] values() {
+        return Arrays.copyOf(values, size);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+}
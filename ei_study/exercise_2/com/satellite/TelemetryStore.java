@@ -0,0 +1,255 @@
+package com.satellite;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+public class TelemetryStore {
+    public enum Aggregation {
+        SUM, AVG, MIN, MAX, COUNT
+    }
+
+    private final int chunkSize;
+    private final int maxSealedChunks;
+    private final Deque<Chunk> sealed = new ArrayDeque<>();
+
+    private final long[] openTimestamps;
+    private final double[] openValues;
+    private int openCount;
+    private long totalSamples;
+
+    static final int DEFAULT_CHUNK_SIZE = 1024;
+    static final int DEFAULT_MAX_SEALED_CHUNKS = 1024;
+
+    // Keeps roughly the last million samples; older chunks are evicted.
+    public TelemetryStore() {
+        this(DEFAULT_CHUNK_SIZE, DEFAULT_MAX_SEALED_CHUNKS);
+    }
+
+    public TelemetryStore(int chunkSize, int maxSealedChunks) {
+        if (chunkSize <= 0 || maxSealedChunks <= 0) {
+            throw new IllegalArgumentException("Chunk size and retention must be positive");
+        }
+        this.chunkSize = chunkSize;
+        this.maxSealedChunks = maxSealedChunks;
+        this.openTimestamps = new long[chunkSize];
+        this.openValues = new double[chunkSize];
+    }
+
+    public synchronized void append(long timestamp, double value) {
+        if (openCount > 0 && timestamp < openTimestamps[openCount - 1]
+                || openCount == 0 && !sealed.isEmpty() && timestamp < sealed.peekLast().lastTimestamp) {
+            throw new IllegalArgumentException("Telemetry timestamps must not go backwards");
+        }
+        openTimestamps[openCount] = timestamp;
+        openValues[openCount] = value;
+        openCount++;
+        totalSamples++;
+        if (openCount == chunkSize) {
+            seal();
+        }
+    }
+
+    // For live sampling from the wall clock: a timestamp earlier than the last
+    // sample (for example after a clock step) is moved up to it rather than
+    // rejected. Returns the timestamp actually stored.
+    public synchronized long appendClamped(long timestamp, double value) {
+        long last = openCount > 0 ? openTimestamps[openCount - 1]
+                : sealed.isEmpty() ? Long.MIN_VALUE : sealed.peekLast().lastTimestamp;
+        long stored = Math.max(timestamp, last);
+        append(stored, value);
+        return stored;
+    }
+
+    public synchronized long size() {
+        return totalSamples;
+    }
+
+    public synchronized int sealedChunkCount() {
+        return sealed.size();
+    }
+
+    public synchronized long compressedBytes() {
+        long bytes = 0;
+        for (Chunk chunk : sealed) {
+            bytes += chunk.data.length;
+        }
+        return bytes;
+    }
+
+    // Returns every retained sample with from <= timestamp < to.
+    public synchronized TelemetrySeries range(long from, long to) {
+        TelemetrySeries series = new TelemetrySeries(64);
+        scan(from, to, series::add);
+        return series;
+    }
+
+    // Buckets are aligned to from and empty buckets are left out of the result.
+    public synchronized TelemetrySeries downsample(long from, long to, long bucketMillis, Aggregation aggregation) {
+        if (bucketMillis <= 0) {
+            throw new IllegalArgumentException("Bucket width must be positive");
+        }
+        Downsampler downsampler = new Downsampler(from, bucketMillis, aggregation);
+        scan(from, to, downsampler);
+        downsampler.flush();
+        return downsampler.series;
+    }
+
+    private void scan(long from, long to, SampleVisitor visitor) {
+        for (Chunk chunk : sealed) {
+            if (chunk.lastTimestamp < from || chunk.firstTimestamp >= to) {
+                continue;
+            }
+            chunk.decode(from, to, visitor);
+        }
+        for (int i = 0; i < openCount; i++) {
+            long timestamp = openTimestamps[i];
+            if (timestamp >= from && timestamp < to) {
+                visitor.accept(timestamp, openValues[i]);
+            }
+        }
+    }
+
+    private void seal() {
+        sealed.addLast(Chunk.encode(openTimestamps, openValues, openCount));
+        openCount = 0;
+        while (sealed.size() > maxSealedChunks) {
+            totalSamples -= sealed.removeFirst().count;
+        }
+    }
+
+    private interface SampleVisitor {
+        void accept(long timestamp, double value);
+    }
+
+    // Timestamps are stored as zig-zag varint deltas and values as varints of
+    // the XOR with the previous value's bits, so steady series shrink to a few
+    // bytes per sample.
+    private static final class Chunk {
+        private final byte[] data;
+        private final int count;
+        private final long firstTimestamp;
+        private final long lastTimestamp;
+
+        private Chunk(byte[] data, int count, long firstTimestamp, long lastTimestamp) {
+            this.data = data;
+            this.count = count;
+            this.firstTimestamp = firstTimestamp;
+            this.lastTimestamp = lastTimestamp;
+        }
+
+        static Chunk encode(long[] timestamps, double[] values, int count) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(count * 4);
+            long previousTimestamp = timestamps[0];
+            long previousBits = 0;
+            for (int i = 0; i < count; i++) {
+                long delta = timestamps[i] - previousTimestamp;
+                writeVarLong(out, (delta << 1) ^ (delta >> 63));
+                long bits = Double.doubleToRawLongBits(values[i]);
+                writeVarLong(out, Long.reverse(bits ^ previousBits));
+                previousTimestamp = timestamps[i];
+                previousBits = bits;
+            }
+            return new Chunk(out.toByteArray(), count, timestamps[0], timestamps[count - 1]);
+        }
+
+        void decode(long from, long to, SampleVisitor visitor) {
+            int[] position = {0};
+            long timestamp = firstTimestamp;
+            long bits = 0;
+            for (int i = 0; i < count; i++) {
+                long zigZag = readVarLong(data, position);
+                timestamp += (zigZag >>> 1) ^ -(zigZag & 1);
+                bits ^= Long.reverse(readVarLong(data, position));
+                if (timestamp >= to) {
+                    return;
+                }
+                if (timestamp >= from) {
+                    visitor.accept(timestamp, Double.longBitsToDouble(bits));
+                }
+            }
+        }
+
+        private static void writeVarLong(ByteArrayOutputStream out, long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+        private static long readVarLong(byte[] data, int[] position) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position[0]++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    private static final class Downsampler implements SampleVisitor {
+        private final long origin;
+        private final long bucketMillis;
+        private final Aggregation aggregation;
+        private final TelemetrySeries series = new TelemetrySeries(64);
+
+        private long bucket = Long.MIN_VALUE;
+        private long count;
+        private double accumulator;
+
+        Downsampler(long origin, long bucketMillis, Aggregation aggregation) {
+            this.origin = origin;
+            this.bucketMillis = bucketMillis;
+            this.aggregation = aggregation;
+        }
+
+        @Override
+        public void accept(long timestamp, double value) {
+            long sampleBucket = Math.floorDiv(timestamp - origin, bucketMillis);
+            if (sampleBucket != bucket) {
+                flush();
+                bucket = sampleBucket;
+            }
+            if (count == 0) {
+                accumulator = aggregation == Aggregation.COUNT ? 0 : value;
+            } else {
+                switch (aggregation) {
+                    case MIN:
+                        accumulator = Math.min(accumulator, value);
+                        break;
+                    case MAX:
+                        accumulator = Math.max(accumulator, value);
+                        break;
+                    case COUNT:
+                        break;
+                    default:
+                        accumulator += value;
+                }
+            }
+            count++;
+        }
+
+        void flush() {
+            if (count == 0) {
+                return;
+            }
+            double result;
+            switch (aggregation) {
+                case AVG:
+                    result = accumulator / count;
+                    break;
+                case COUNT:
+                    result = count;
+                    break;
+                default:
+                    result = accumulator;
+            }
+            series.add(origin + bucket * bucketMillis, result);
+            count = 0;
+        }
+    }
+}